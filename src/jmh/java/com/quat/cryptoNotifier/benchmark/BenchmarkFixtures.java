@@ -0,0 +1,206 @@
+package com.quat.cryptoNotifier.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.service.DataProviderService;
+import com.quat.cryptoNotifier.service.MarketSnapshotService;
+import com.quat.cryptoNotifier.util.IndicatorEngine;
+import com.quat.cryptoNotifier.util.IndicatorUtils;
+import com.quat.cryptoNotifier.util.OhlcvIndicators;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks: random-walk price series, portfolios
+ * replicated from the bundled holdings.json, and market snapshots taken through
+ * MarketSnapshotService with a DataProviderService that never calls the network.
+ */
+public class BenchmarkFixtures {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int HISTORY_DAYS = 365;
+
+    /**
+     * Daily series of size points from a seeded random walk, pulled gently back towards its
+     * starting price so long series stay in a realistic range, with volumes and market caps
+     */
+    public static PriceSeries priceSeries(int size, long seed) {
+        Random random = new Random(seed);
+        PriceSeries series = new PriceSeries(size);
+        long timestamp = System.currentTimeMillis() - size * DAY_MILLIS;
+        double start = 100 + random.nextDouble() * 1000;
+        double close = start;
+        for (int i = 0; i < size; i++) {
+            close *= 1 + random.nextGaussian() * 0.03 + 0.002 * Math.log(start / close);
+            double volume = close * (1_000_000 + random.nextDouble() * 5_000_000);
+            series.append(timestamp + i * DAY_MILLIS, close, volume, close * 20_000_000);
+        }
+        return series;
+    }
+
+    /**
+     * Portfolio of count holdings, cycling through the coins in holdings.json. Repeated
+     * coins get a numbered id and symbol so each holding maps to its own market data.
+     */
+    public static List<Holding> holdings(int count) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode cryptos;
+        try (InputStream in = resource("holdings.json")) {
+            cryptos = objectMapper.readTree(in).path("portfolio").path("cryptos");
+        }
+        List<Holding> base = new ArrayList<>();
+        for (JsonNode crypto : cryptos) {
+            base.add(objectMapper.treeToValue(crypto, Holding.class));
+        }
+
+        List<Holding> holdings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Holding template = base.get(i % base.size());
+            int copy = i / base.size();
+            String suffix = copy == 0 ? "" : String.valueOf(copy);
+            holdings.add(new Holding(copy == 0 ? template.getId() : template.getId() + "-" + suffix,
+                template.getSymbol() + suffix, template.getName(), template.getSector(), template.getHoldings(),
+                template.getAveragePrice(), template.getExpectedEntry(), template.getDeepEntryPrice(),
+                template.getTargetPrice3Month(), template.getTargetPriceLongTerm()));
+        }
+        return holdings;
+    }
+
+    /**
+     * Snapshot for the holdings, built the way an advisory run builds it but backed by
+     * synthetic market data
+     */
+    public static MarketSnapshot snapshot(List<Holding> holdings) {
+        MarketDataConfig config = new MarketDataConfig();
+        MarketSnapshotService snapshotService = new MarketSnapshotService();
+        autowire(snapshotService, config, new SyntheticDataProviderService());
+        snapshotService.initialize();
+        try {
+            return snapshotService.createSnapshot(holdings);
+        } finally {
+            snapshotService.shutdown();
+        }
+    }
+
+    /**
+     * Set each @Autowired field of the bean to the first dependency of a matching type
+     */
+    public static <T> T autowire(T bean, Object... dependencies) {
+        for (Class<?> type = bean.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Autowired.class)) {
+                    continue;
+                }
+                for (Object dependency : dependencies) {
+                    if (field.getType().isInstance(dependency)) {
+                        field.setAccessible(true);
+                        try {
+                            field.set(bean, dependency);
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException("Cannot inject " + field, e);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return bean;
+    }
+
+    public static String resourceAsString(String name) throws IOException {
+        try (InputStream in = resource(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing benchmark resource " + name);
+        }
+        return in;
+    }
+
+    /**
+     * Market data with a year of history and every indicator the cache would attach,
+     * seeded by the coin id so repeated runs see the same prompts
+     */
+    static MarketData marketData(String coinGeckoId) {
+        PriceSeries series = priceSeries(HISTORY_DAYS, coinGeckoId.hashCode());
+        double close = series.lastClose();
+        double previousClose = series.closeAt(series.size() - 2);
+
+        MarketData marketData = new MarketData(coinGeckoId.toUpperCase(), close);
+        marketData.setPriceSeries(series);
+        marketData.setPriceChange24h(close - previousClose);
+        marketData.setPriceChangePercentage24h((close - previousClose) / previousClose * 100);
+        marketData.setVolume24h(series.volumeAt(series.size() - 1));
+        marketData.setMarketCap(series.marketCapAt(series.size() - 1));
+
+        IndicatorEngine engine = IndicatorEngine.of(series);
+        marketData.setRsi(engine.getRsi());
+        marketData.setSma20(engine.getSma20());
+        marketData.setSma50(engine.getSma50());
+        marketData.setSma200(engine.getSma200());
+        marketData.setMacd(engine.getMacd());
+        marketData.setMacdSignal(engine.getMacdSignal());
+        marketData.setMacdHistogram(engine.getMacdHistogram());
+        IndicatorUtils.MACDSeries macd = IndicatorUtils.calculateMACDSeries(series, IndicatorEngine.MACD_FAST,
+            IndicatorEngine.MACD_SLOW, IndicatorEngine.MACD_SIGNAL, new IndicatorUtils.MACDSeries());
+        int crossoverIndex = macd.lastCrossoverIndex(10);
+        if (crossoverIndex >= 0) {
+            marketData.setMacdCrossover(macd.crossoverAt(crossoverIndex) > 0 ? "BULLISH" : "BEARISH");
+            marketData.setMacdCrossoverDaysAgo(macd.size() - 1 - crossoverIndex);
+        }
+
+        double[] closes = series.closesArray();
+        double[] volumes = series.volumesArray();
+        int size = series.size();
+        double[] out = new double[3];
+        OhlcvIndicators.bollingerBands(closes, size, 20, 2.0, out);
+        marketData.setBollingerMiddle(out[0]);
+        marketData.setBollingerUpper(out[1]);
+        marketData.setBollingerLower(out[2]);
+        marketData.setAtr(OhlcvIndicators.averageTrueRange(closes, closes, closes, size, 14));
+        OhlcvIndicators.stochastic(closes, closes, closes, size, 14, 3, out);
+        marketData.setStochasticK(out[0]);
+        marketData.setStochasticD(out[1]);
+        double obv = OhlcvIndicators.onBalanceVolume(closes, volumes, size);
+        marketData.setObv(obv);
+        marketData.setObvChange20d(obv - OhlcvIndicators.onBalanceVolume(closes, volumes, size - 20));
+        OhlcvIndicators.averageDirectionalIndex(closes, closes, closes, size, 14, out);
+        marketData.setAdx(out[0]);
+        marketData.setPlusDi(out[1]);
+        marketData.setMinusDi(out[2]);
+        marketData.setVwap20d(OhlcvIndicators.volumeWeightedAveragePrice(closes, closes, closes, volumes, size, 20));
+        return marketData;
+    }
+
+    /**
+     * Serves synthetic market data instead of going through the cache and CoinGecko
+     */
+    static class SyntheticDataProviderService extends DataProviderService {
+        @Override
+        public MarketData getMarketData(String coinGeckoId) {
+            return marketData(coinGeckoId);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.quat.cryptoNotifier.benchmark;
+
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.IndicatorEngine;
+import com.quat.cryptoNotifier.util.IndicatorUtils;
+import com.quat.cryptoNotifier.util.OhlcvIndicators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indicator calculations over daily series of 200 (under a year), 2,000 (a backfilled
+ * archive) and 20,000 points. Run with -prof gc to see which calls allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IndicatorBenchmark {
+
+    @Param({"200", "2000", "20000"})
+    public int size;
+
+    private PriceSeries series;
+    private double[] closes;
+    private double[] volumes;
+    private List<Double> boxedCloses;
+    private IndicatorUtils.MACDSeries macdSeries;
+    private IndicatorEngine engine;
+    private final double[] out = new double[3];
+
+    @Setup
+    public void setup() {
+        series = BenchmarkFixtures.priceSeries(size, 42);
+        closes = series.closesArray();
+        volumes = series.volumesArray();
+        boxedCloses = series.asList();
+        macdSeries = IndicatorUtils.calculateMACDSeries(series, 12, 26, 9, new IndicatorUtils.MACDSeries());
+        engine = IndicatorEngine.of(series);
+    }
+
+    @Benchmark
+    public Double sma200() {
+        return IndicatorUtils.calculateSMA(closes, size, 200);
+    }
+
+    @Benchmark
+    public Double sma200Boxed() {
+        return IndicatorUtils.calculateSMA(boxedCloses, 200);
+    }
+
+    @Benchmark
+    public Double rsi() {
+        return IndicatorUtils.calculateRSI(closes, size, 14);
+    }
+
+    @Benchmark
+    public Double ema50() {
+        return IndicatorUtils.calculateEMA(closes, size, 50);
+    }
+
+    @Benchmark
+    public IndicatorUtils.MACDResult macd() {
+        return IndicatorUtils.calculateMACD(closes, size, 12, 26, 9);
+    }
+
+    @Benchmark
+    public int macdSeriesLastCrossover() {
+        IndicatorUtils.calculateMACDSeries(closes, size, 12, 26, 9, macdSeries);
+        return macdSeries.lastCrossoverIndex(10);
+    }
+
+    @Benchmark
+    public IndicatorEngine engineRebuild() {
+        return IndicatorEngine.of(series);
+    }
+
+    @Benchmark
+    public Double engineReplaceLast() {
+        engine.replaceLast(series.lastTimestamp(), series.lastClose() * 1.001);
+        return engine.getMacdHistogram();
+    }
+
+    @Benchmark
+    public void bollingerBands(Blackhole blackhole) {
+        OhlcvIndicators.bollingerBands(closes, size, 20, 2.0, out);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public double averageTrueRange() {
+        return OhlcvIndicators.averageTrueRange(closes, closes, closes, size, 14);
+    }
+
+    @Benchmark
+    public void stochastic(Blackhole blackhole) {
+        OhlcvIndicators.stochastic(closes, closes, closes, size, 14, 3, out);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public double onBalanceVolume() {
+        return OhlcvIndicators.onBalanceVolume(closes, volumes, size);
+    }
+
+    @Benchmark
+    public void averageDirectionalIndex(Blackhole blackhole) {
+        OhlcvIndicators.averageDirectionalIndex(closes, closes, closes, size, 14, out);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public double volumeWeightedAveragePrice() {
+        return OhlcvIndicators.volumeWeightedAveragePrice(closes, closes, closes, volumes, size, 20);
+    }
+}
@@ -0,0 +1,175 @@
+package com.quat.cryptoNotifier.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
+import com.quat.cryptoNotifier.service.AdvisorAIService;
+import com.quat.cryptoNotifier.service.CorrelationService;
+import com.quat.cryptoNotifier.service.EntryExitStrategyAnalysisService;
+import com.quat.cryptoNotifier.service.HistoryBackfillService;
+import com.quat.cryptoNotifier.service.IntradayCandleService;
+import com.quat.cryptoNotifier.service.InvestmentAnalysisService;
+import com.quat.cryptoNotifier.service.InvestmentStrategyService;
+import com.quat.cryptoNotifier.service.OpportunityFinderAnalysisService;
+import com.quat.cryptoNotifier.service.PortfolioHealthCheckAnalysisService;
+import com.quat.cryptoNotifier.service.PortfolioOptimizationAnalysisService;
+import com.quat.cryptoNotifier.service.RiskOpportunityAnalysisService;
+import com.quat.cryptoNotifier.service.TechnicalAnalysisService;
+import com.quat.cryptoNotifier.service.USDTAllocationAnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt building for portfolios of 20, 200 and 2,000 holdings. The market snapshot is
+ * taken once per trial from synthetic data, so only the string building is measured;
+ * there is no intraday or archived history, so those prompt sections are skipped.
+ * Correlations are computed once per snapshot and shared, as in an advisory run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuilderBenchmark {
+
+    @Param({"20", "200", "2000"})
+    public int holdingCount;
+
+    private List<Holding> holdings;
+    private MarketSnapshot snapshot;
+    private List<Map<String, Object>> investmentAnalysisData;
+
+    private RiskOpportunityAnalysisService riskOpportunityService;
+    private OpportunityFinderAnalysisService opportunityFinderService;
+    private PortfolioHealthCheckAnalysisService portfolioHealthCheckService;
+    private EntryExitStrategyAnalysisService entryExitStrategyService;
+    private TechnicalAnalysisService technicalAnalysisService;
+    private PortfolioOptimizationAnalysisService portfolioOptimizationService;
+    private USDTAllocationAnalysisService usdtAllocationService;
+    private AdvisorAIService advisorAIService;
+    private InvestmentAnalysisService investmentAnalysisService;
+    private CorrelationService correlationService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        holdings = BenchmarkFixtures.holdings(holdingCount);
+        snapshot = BenchmarkFixtures.snapshot(holdings);
+
+        investmentAnalysisData = new ArrayList<>(holdings.size());
+        for (Holding holding : holdings) {
+            MarketData marketData = snapshot.getMarketData(holding.getId());
+            Map<String, Object> data = new HashMap<>();
+            data.put("price", marketData.getCurrentPrice());
+            data.put("priceChange24h", marketData.getPriceChangePercentage24h());
+            data.put("priceChange7d", "N/A");
+            data.put("marketCap", marketData.getMarketCap());
+            data.put("volume24h", marketData.getVolume24h());
+            investmentAnalysisData.add(data);
+        }
+
+        InvestmentStrategyService investmentStrategyService = new InvestmentStrategyService();
+        investmentStrategyService.loadInvestmentStrategy();
+
+        // Point the archive at an empty directory so no backfilled history is found
+        MarketDataConfig marketDataConfig = new MarketDataConfig();
+        marketDataConfig.setBackfillDir(Files.createTempDirectory("benchmark-history").toString());
+        HistoryBackfillService historyBackfillService = BenchmarkFixtures.autowire(new HistoryBackfillService(),
+            marketDataConfig);
+        IntradayCandleService intradayCandleService = BenchmarkFixtures.autowire(new IntradayCandleService(),
+            marketDataConfig);
+
+        correlationService = BenchmarkFixtures.autowire(new CorrelationService(), marketDataConfig);
+        correlationService.initialize();
+
+        Object[] dependencies = {investmentStrategyService, historyBackfillService, intradayCandleService,
+            correlationService, new ObjectMapper()};
+        riskOpportunityService = BenchmarkFixtures.autowire(new RiskOpportunityAnalysisService(), dependencies);
+        opportunityFinderService = BenchmarkFixtures.autowire(new OpportunityFinderAnalysisService(), dependencies);
+        portfolioHealthCheckService = BenchmarkFixtures.autowire(new PortfolioHealthCheckAnalysisService(), dependencies);
+        entryExitStrategyService = BenchmarkFixtures.autowire(new EntryExitStrategyAnalysisService(), dependencies);
+        technicalAnalysisService = BenchmarkFixtures.autowire(new TechnicalAnalysisService(), dependencies);
+        portfolioOptimizationService = BenchmarkFixtures.autowire(new PortfolioOptimizationAnalysisService(), dependencies);
+        usdtAllocationService = BenchmarkFixtures.autowire(new USDTAllocationAnalysisService(), dependencies);
+        advisorAIService = BenchmarkFixtures.autowire(new AdvisorAIService(), dependencies);
+        investmentAnalysisService = new InvestmentAnalysisService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        correlationService.shutdown();
+    }
+
+    @Benchmark
+    public String buildRiskOpportunityPrompt() {
+        return riskOpportunityService.buildRiskOpportunityPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildOpportunityFinderPrompt() {
+        return opportunityFinderService.buildOpportunityFinderPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildPortfolioHealthCheckPrompt() {
+        return portfolioHealthCheckService.buildPortfolioHealthCheckPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildEntryExitStrategyPrompt() {
+        return entryExitStrategyService.buildEntryExitStrategyPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildTechnicalAnalysisPrompt() {
+        return technicalAnalysisService.buildTechnicalAnalysisPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildPortfolioOptimizationPrompt() {
+        return portfolioOptimizationService.buildPortfolioOptimizationPrompt(holdings, snapshot);
+    }
+
+    @Benchmark
+    public String buildUSDTAllocationPrompt() {
+        return usdtAllocationService.buildUSDTAllocationPrompt(holdings, 5000.0, snapshot);
+    }
+
+    @Benchmark
+    public String buildInvestmentStrategyPrompt() {
+        return advisorAIService.buildInvestmentStrategyPrompt(holdings, snapshot);
+    }
+
+    /**
+     * One prompt per holding, as the per-coin investment analysis runs
+     */
+    @Benchmark
+    public void buildInvestmentAnalysisPrompts(Blackhole blackhole) {
+        for (int i = 0; i < holdings.size(); i++) {
+            blackhole.consume(investmentAnalysisService.buildInvestmentAnalysisPrompt(holdings.get(i),
+                investmentAnalysisData.get(i)));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.quat.cryptoNotifier.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.service.AdvisorAIService;
+import com.quat.cryptoNotifier.service.EntryExitStrategyAnalysisService;
+import com.quat.cryptoNotifier.service.InvestmentAnalysisService;
+import com.quat.cryptoNotifier.service.InvestmentStrategyService;
+import com.quat.cryptoNotifier.service.OpportunityFinderAnalysisService;
+import com.quat.cryptoNotifier.service.PortfolioHealthCheckAnalysisService;
+import com.quat.cryptoNotifier.service.PortfolioOptimizationAnalysisService;
+import com.quat.cryptoNotifier.service.RiskOpportunityAnalysisService;
+import com.quat.cryptoNotifier.service.TechnicalAnalysisService;
+import com.quat.cryptoNotifier.service.USDTAllocationAnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of recorded LLM responses (src/jmh/resources/llm-responses), each answering
+ * its prompt's JSON format for the 18 non-stablecoin holdings in holdings.json, wrapped
+ * in a markdown code fence the way the model returns it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParserBenchmark {
+
+    private String riskOpportunityResponse;
+    private String opportunityFinderResponse;
+    private String portfolioHealthCheckResponse;
+    private String entryExitStrategyResponse;
+    private String technicalAnalysisResponse;
+    private String portfolioOptimizationResponse;
+    private String usdtAllocationResponse;
+    private String investmentStrategyResponse;
+    private String investmentAnalysisResponse;
+
+    private RiskOpportunityAnalysisService riskOpportunityService;
+    private OpportunityFinderAnalysisService opportunityFinderService;
+    private PortfolioHealthCheckAnalysisService portfolioHealthCheckService;
+    private EntryExitStrategyAnalysisService entryExitStrategyService;
+    private TechnicalAnalysisService technicalAnalysisService;
+    private PortfolioOptimizationAnalysisService portfolioOptimizationService;
+    private USDTAllocationAnalysisService usdtAllocationService;
+    private AdvisorAIService advisorAIService;
+    private InvestmentAnalysisService investmentAnalysisService;
+
+    @Setup
+    public void setup() throws IOException {
+        riskOpportunityResponse = response("risk-opportunity");
+        opportunityFinderResponse = response("opportunity-finder");
+        portfolioHealthCheckResponse = response("portfolio-health-check");
+        entryExitStrategyResponse = response("entry-exit-strategy");
+        technicalAnalysisResponse = response("technical-analysis");
+        portfolioOptimizationResponse = response("portfolio-optimization");
+        usdtAllocationResponse = response("usdt-allocation");
+        investmentStrategyResponse = response("investment-strategy");
+        investmentAnalysisResponse = response("investment-analysis");
+
+        Object[] dependencies = {new InvestmentStrategyService(), new ObjectMapper()};
+        riskOpportunityService = BenchmarkFixtures.autowire(new RiskOpportunityAnalysisService(), dependencies);
+        opportunityFinderService = BenchmarkFixtures.autowire(new OpportunityFinderAnalysisService(), dependencies);
+        portfolioHealthCheckService = BenchmarkFixtures.autowire(new PortfolioHealthCheckAnalysisService(), dependencies);
+        entryExitStrategyService = BenchmarkFixtures.autowire(new EntryExitStrategyAnalysisService(), dependencies);
+        technicalAnalysisService = BenchmarkFixtures.autowire(new TechnicalAnalysisService(), dependencies);
+        portfolioOptimizationService = BenchmarkFixtures.autowire(new PortfolioOptimizationAnalysisService(), dependencies);
+        usdtAllocationService = BenchmarkFixtures.autowire(new USDTAllocationAnalysisService(), dependencies);
+        advisorAIService = BenchmarkFixtures.autowire(new AdvisorAIService(), dependencies);
+        investmentAnalysisService = new InvestmentAnalysisService();
+    }
+
+    private static String response(String name) throws IOException {
+        return BenchmarkFixtures.resourceAsString("llm-responses/" + name + ".txt");
+    }
+
+    @Benchmark
+    public Map<String, Object> parseRiskOpportunityResponse() {
+        return riskOpportunityService.parseRiskOpportunityResponse(riskOpportunityResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseOpportunityFinderResponse() {
+        return opportunityFinderService.parseOpportunityFinderResponse(opportunityFinderResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parsePortfolioHealthCheckResponse() {
+        return portfolioHealthCheckService.parsePortfolioHealthCheckResponse(portfolioHealthCheckResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseEntryExitStrategyResponse() {
+        return entryExitStrategyService.parseEntryExitStrategyResponse(entryExitStrategyResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseTechnicalAnalysisResponse() {
+        return technicalAnalysisService.parseTechnicalAnalysisResponse(technicalAnalysisResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parsePortfolioOptimizationResponse() {
+        return portfolioOptimizationService.parsePortfolioOptimizationResponse(portfolioOptimizationResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseUSDTAllocationResponse() {
+        return usdtAllocationService.parseUSDTAllocationResponse(usdtAllocationResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseInvestmentStrategyResponse() {
+        return advisorAIService.parseInvestmentStrategyResponse(investmentStrategyResponse);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseInvestmentAnalysisResponse() {
+        return investmentAnalysisService.parseInvestmentAnalysisResponse(investmentAnalysisResponse, "BTC");
+    }
+}
@@ -0,0 +1,483 @@
+package com.quat.cryptoNotifier.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "market-data")
+public class MarketDataConfig {
+
+    // Market data source: "coingecko" (live API) or "replay" (recorded fixtures)
+    private String provider = "coingecko";
+    private String replayDir = "fixtures/market-data";
+    private int replayLatencyMs = 0;
+
+    // CoinGecko rate limiting
+    private int requestsPerMinute = 10;
+    private int burstSize = 3;
+    private int maxThrottleRetries = 3;
+    private int defaultRetryAfterSeconds = 60;
+    private int conditionalCacheEntries = 500;
+
+    // Stale-while-revalidate
+    private boolean staleWhileRevalidate = true;
+    private int maxStaleHours = 48;
+
+    // Write-behind cache persistence
+    private int persistDebounceSeconds = 5;
+    private int persistDirtyThreshold = 20;
+    private int persistMaxDelaySeconds = 60;
+
+    // Append-only segmented store
+    private String storeDir = "cache/market-data";
+    private long storeSegmentMaxBytes = 8 * 1024 * 1024;
+    private double storeCompactionGarbageRatio = 0.5;
+
+    // Adaptive TTL and background refresh
+    private boolean adaptiveTtl = true;
+    private int defaultTtlHours = 12;
+    private int minTtlMinutes = 30;
+    private int maxTtlHours = 24;
+    private double dustPositionUsd = 10.0;
+    private Map<String, Integer> ttlOverrideMinutes = new HashMap<>();
+    private boolean backgroundRefresh = true;
+    private int refreshIntervalSeconds = 60;
+    private double refreshBudgetFraction = 0.5;
+
+    // Startup warm-up
+    private boolean warmupEnabled = true;
+    private int warmupParallelism = 3;
+
+    // Per-run market snapshot
+    private int snapshotParallelism = 4;
+
+    // Cross-asset return correlations
+    private List<Integer> correlationWindows = new ArrayList<>(Arrays.asList(30, 90));
+    private int correlationTopPairs = 5;
+    private double correlationClusterThreshold = 0.7;
+    private int correlationParallelism = 4;
+
+    // Historical backfill
+    private String backfillDir = "data/history";
+    private int backfillParallelism = 2;
+    private int backfillChunkDays = 365;
+    private int backfillDefaultYears = 5;
+
+    // Hedged provider (market-data.provider=hedged)
+    private List<String> hedgeProviders = new ArrayList<>(Arrays.asList("coingecko"));
+    private double hedgeLatencyPercentile = 0.95;
+    private long hedgeMinDelayMs = 250;
+    private long hedgeMaxDelayMs = 5000;
+    private long hedgeDefaultDelayMs = 2000;
+    private double hedgeMaxErrorRate = 0.5;
+    private double hedgeMaxPriceDeviation = 0.05;
+
+    // In-memory cache bound, in daily history points (~500 coins at 200 days)
+    private long cacheMaxWeight = 100000;
+
+    // Intraday candles (opt-in)
+    private boolean intradayEnabled = false;
+    private int intradayPollSeconds = 60;
+    private int intradayCandleCapacity = 500;
+    private String intradayDir = "data/intraday";
+    private int intradaySpillIntervalMinutes = 15;
+
+    // Getters and Setters
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    public void setBurstSize(int burstSize) {
+        this.burstSize = burstSize;
+    }
+
+    public int getMaxThrottleRetries() {
+        return maxThrottleRetries;
+    }
+
+    public void setMaxThrottleRetries(int maxThrottleRetries) {
+        this.maxThrottleRetries = maxThrottleRetries;
+    }
+
+    public int getDefaultRetryAfterSeconds() {
+        return defaultRetryAfterSeconds;
+    }
+
+    public void setDefaultRetryAfterSeconds(int defaultRetryAfterSeconds) {
+        this.defaultRetryAfterSeconds = defaultRetryAfterSeconds;
+    }
+
+    public int getConditionalCacheEntries() {
+        return conditionalCacheEntries;
+    }
+
+    public void setConditionalCacheEntries(int conditionalCacheEntries) {
+        this.conditionalCacheEntries = conditionalCacheEntries;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public int getMaxStaleHours() {
+        return maxStaleHours;
+    }
+
+    public void setMaxStaleHours(int maxStaleHours) {
+        this.maxStaleHours = maxStaleHours;
+    }
+
+    public int getPersistDebounceSeconds() {
+        return persistDebounceSeconds;
+    }
+
+    public void setPersistDebounceSeconds(int persistDebounceSeconds) {
+        this.persistDebounceSeconds = persistDebounceSeconds;
+    }
+
+    public int getPersistDirtyThreshold() {
+        return persistDirtyThreshold;
+    }
+
+    public void setPersistDirtyThreshold(int persistDirtyThreshold) {
+        this.persistDirtyThreshold = persistDirtyThreshold;
+    }
+
+    public int getPersistMaxDelaySeconds() {
+        return persistMaxDelaySeconds;
+    }
+
+    public void setPersistMaxDelaySeconds(int persistMaxDelaySeconds) {
+        this.persistMaxDelaySeconds = persistMaxDelaySeconds;
+    }
+
+    public String getStoreDir() {
+        return storeDir;
+    }
+
+    public void setStoreDir(String storeDir) {
+        this.storeDir = storeDir;
+    }
+
+    public long getStoreSegmentMaxBytes() {
+        return storeSegmentMaxBytes;
+    }
+
+    public void setStoreSegmentMaxBytes(long storeSegmentMaxBytes) {
+        this.storeSegmentMaxBytes = storeSegmentMaxBytes;
+    }
+
+    public double getStoreCompactionGarbageRatio() {
+        return storeCompactionGarbageRatio;
+    }
+
+    public void setStoreCompactionGarbageRatio(double storeCompactionGarbageRatio) {
+        this.storeCompactionGarbageRatio = storeCompactionGarbageRatio;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getReplayDir() {
+        return replayDir;
+    }
+
+    public void setReplayDir(String replayDir) {
+        this.replayDir = replayDir;
+    }
+
+    public int getReplayLatencyMs() {
+        return replayLatencyMs;
+    }
+
+    public void setReplayLatencyMs(int replayLatencyMs) {
+        this.replayLatencyMs = replayLatencyMs;
+    }
+
+    public boolean isAdaptiveTtl() {
+        return adaptiveTtl;
+    }
+
+    public void setAdaptiveTtl(boolean adaptiveTtl) {
+        this.adaptiveTtl = adaptiveTtl;
+    }
+
+    public int getDefaultTtlHours() {
+        return defaultTtlHours;
+    }
+
+    public void setDefaultTtlHours(int defaultTtlHours) {
+        this.defaultTtlHours = defaultTtlHours;
+    }
+
+    public int getMinTtlMinutes() {
+        return minTtlMinutes;
+    }
+
+    public void setMinTtlMinutes(int minTtlMinutes) {
+        this.minTtlMinutes = minTtlMinutes;
+    }
+
+    public int getMaxTtlHours() {
+        return maxTtlHours;
+    }
+
+    public void setMaxTtlHours(int maxTtlHours) {
+        this.maxTtlHours = maxTtlHours;
+    }
+
+    public double getDustPositionUsd() {
+        return dustPositionUsd;
+    }
+
+    public void setDustPositionUsd(double dustPositionUsd) {
+        this.dustPositionUsd = dustPositionUsd;
+    }
+
+    public Map<String, Integer> getTtlOverrideMinutes() {
+        return ttlOverrideMinutes;
+    }
+
+    public void setTtlOverrideMinutes(Map<String, Integer> ttlOverrideMinutes) {
+        this.ttlOverrideMinutes = ttlOverrideMinutes;
+    }
+
+    public boolean isBackgroundRefresh() {
+        return backgroundRefresh;
+    }
+
+    public void setBackgroundRefresh(boolean backgroundRefresh) {
+        this.backgroundRefresh = backgroundRefresh;
+    }
+
+    public int getRefreshIntervalSeconds() {
+        return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    public double getRefreshBudgetFraction() {
+        return refreshBudgetFraction;
+    }
+
+    public void setRefreshBudgetFraction(double refreshBudgetFraction) {
+        this.refreshBudgetFraction = refreshBudgetFraction;
+    }
+
+    public boolean isWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public void setWarmupEnabled(boolean warmupEnabled) {
+        this.warmupEnabled = warmupEnabled;
+    }
+
+    public int getWarmupParallelism() {
+        return warmupParallelism;
+    }
+
+    public void setWarmupParallelism(int warmupParallelism) {
+        this.warmupParallelism = warmupParallelism;
+    }
+
+    public int getSnapshotParallelism() {
+        return snapshotParallelism;
+    }
+
+    public void setSnapshotParallelism(int snapshotParallelism) {
+        this.snapshotParallelism = snapshotParallelism;
+    }
+
+    public List<Integer> getCorrelationWindows() {
+        return correlationWindows;
+    }
+
+    public void setCorrelationWindows(List<Integer> correlationWindows) {
+        this.correlationWindows = correlationWindows;
+    }
+
+    public int getCorrelationTopPairs() {
+        return correlationTopPairs;
+    }
+
+    public void setCorrelationTopPairs(int correlationTopPairs) {
+        this.correlationTopPairs = correlationTopPairs;
+    }
+
+    public double getCorrelationClusterThreshold() {
+        return correlationClusterThreshold;
+    }
+
+    public void setCorrelationClusterThreshold(double correlationClusterThreshold) {
+        this.correlationClusterThreshold = correlationClusterThreshold;
+    }
+
+    public int getCorrelationParallelism() {
+        return correlationParallelism;
+    }
+
+    public void setCorrelationParallelism(int correlationParallelism) {
+        this.correlationParallelism = correlationParallelism;
+    }
+
+    public boolean isIntradayEnabled() {
+        return intradayEnabled;
+    }
+
+    public void setIntradayEnabled(boolean intradayEnabled) {
+        this.intradayEnabled = intradayEnabled;
+    }
+
+    public int getIntradayPollSeconds() {
+        return intradayPollSeconds;
+    }
+
+    public void setIntradayPollSeconds(int intradayPollSeconds) {
+        this.intradayPollSeconds = intradayPollSeconds;
+    }
+
+    public int getIntradayCandleCapacity() {
+        return intradayCandleCapacity;
+    }
+
+    public void setIntradayCandleCapacity(int intradayCandleCapacity) {
+        this.intradayCandleCapacity = intradayCandleCapacity;
+    }
+
+    public String getIntradayDir() {
+        return intradayDir;
+    }
+
+    public void setIntradayDir(String intradayDir) {
+        this.intradayDir = intradayDir;
+    }
+
+    public int getIntradaySpillIntervalMinutes() {
+        return intradaySpillIntervalMinutes;
+    }
+
+    public void setIntradaySpillIntervalMinutes(int intradaySpillIntervalMinutes) {
+        this.intradaySpillIntervalMinutes = intradaySpillIntervalMinutes;
+    }
+
+    public long getCacheMaxWeight() {
+        return cacheMaxWeight;
+    }
+
+    public void setCacheMaxWeight(long cacheMaxWeight) {
+        this.cacheMaxWeight = cacheMaxWeight;
+    }
+
+    public List<String> getHedgeProviders() {
+        return hedgeProviders;
+    }
+
+    public void setHedgeProviders(List<String> hedgeProviders) {
+        this.hedgeProviders = hedgeProviders;
+    }
+
+    public double getHedgeLatencyPercentile() {
+        return hedgeLatencyPercentile;
+    }
+
+    public void setHedgeLatencyPercentile(double hedgeLatencyPercentile) {
+        this.hedgeLatencyPercentile = hedgeLatencyPercentile;
+    }
+
+    public long getHedgeMinDelayMs() {
+        return hedgeMinDelayMs;
+    }
+
+    public void setHedgeMinDelayMs(long hedgeMinDelayMs) {
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+    }
+
+    public long getHedgeMaxDelayMs() {
+        return hedgeMaxDelayMs;
+    }
+
+    public void setHedgeMaxDelayMs(long hedgeMaxDelayMs) {
+        this.hedgeMaxDelayMs = hedgeMaxDelayMs;
+    }
+
+    public long getHedgeDefaultDelayMs() {
+        return hedgeDefaultDelayMs;
+    }
+
+    public void setHedgeDefaultDelayMs(long hedgeDefaultDelayMs) {
+        this.hedgeDefaultDelayMs = hedgeDefaultDelayMs;
+    }
+
+    public double getHedgeMaxErrorRate() {
+        return hedgeMaxErrorRate;
+    }
+
+    public void setHedgeMaxErrorRate(double hedgeMaxErrorRate) {
+        this.hedgeMaxErrorRate = hedgeMaxErrorRate;
+    }
+
+    public double getHedgeMaxPriceDeviation() {
+        return hedgeMaxPriceDeviation;
+    }
+
+    public void setHedgeMaxPriceDeviation(double hedgeMaxPriceDeviation) {
+        this.hedgeMaxPriceDeviation = hedgeMaxPriceDeviation;
+    }
+
+    public String getBackfillDir() {
+        return backfillDir;
+    }
+
+    public void setBackfillDir(String backfillDir) {
+        this.backfillDir = backfillDir;
+    }
+
+    public int getBackfillParallelism() {
+        return backfillParallelism;
+    }
+
+    public void setBackfillParallelism(int backfillParallelism) {
+        this.backfillParallelism = backfillParallelism;
+    }
+
+    public int getBackfillChunkDays() {
+        return backfillChunkDays;
+    }
+
+    public void setBackfillChunkDays(int backfillChunkDays) {
+        this.backfillChunkDays = backfillChunkDays;
+    }
+
+    public int getBackfillDefaultYears() {
+        return backfillDefaultYears;
+    }
+
+    public void setBackfillDefaultYears(int backfillDefaultYears) {
+        this.backfillDefaultYears = backfillDefaultYears;
+    }
+}
@@ -0,0 +1,201 @@
+package com.quat.cryptoNotifier.config;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request factory over the shared pooled HttpClient that also enforces a total
+ * per-request deadline. Connect and read timeouts only bound single socket
+ * operations, so a server trickling bytes could otherwise hold a caller forever.
+ * The deadline covers sending the request and reading the whole response; past it
+ * the request is aborted, which fails the caller's pending read.
+ */
+public class PooledHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final long totalTimeoutMs;
+    private final ScheduledThreadPoolExecutor deadlineExecutor;
+    // Hands the request built by super.createRequest to our wrapper on the same thread
+    private final ThreadLocal<HttpUriRequest> createdRequest = new ThreadLocal<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong deadlineAborts = new AtomicLong();
+
+    public PooledHttpRequestFactory(HttpClient httpClient, PoolingHttpClientConnectionManager connectionManager,
+                                    long totalTimeoutMs) {
+        super(httpClient);
+        this.connectionManager = connectionManager;
+        this.totalTimeoutMs = totalTimeoutMs;
+        this.deadlineExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "http-request-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadlineExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request;
+        HttpUriRequest httpRequest;
+        try {
+            request = super.createRequest(uri, httpMethod);
+            httpRequest = createdRequest.get();
+        } finally {
+            createdRequest.remove();
+        }
+        requestCount.incrementAndGet();
+        if (totalTimeoutMs <= 0 || !(httpRequest instanceof HttpRequestBase)) {
+            return request;
+        }
+        return new DeadlineRequest(request, (HttpRequestBase) httpRequest);
+    }
+
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+        createdRequest.set(request);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        deadlineExecutor.shutdownNow();
+        super.destroy();
+    }
+
+    /**
+     * Connection pool usage for diagnostics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        PoolStats total = connectionManager.getTotalStats();
+        stats.put("leased", total.getLeased());
+        stats.put("available", total.getAvailable());
+        stats.put("pending", total.getPending());
+        stats.put("max", total.getMax());
+        stats.put("requests", requestCount.get());
+        stats.put("deadlineAborts", deadlineAborts.get());
+        stats.put("totalTimeoutMs", totalTimeoutMs);
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            PoolStats routeStats = connectionManager.getStats(route);
+            Map<String, Object> routeEntry = new LinkedHashMap<>();
+            routeEntry.put("leased", routeStats.getLeased());
+            routeEntry.put("available", routeStats.getAvailable());
+            routeEntry.put("pending", routeStats.getPending());
+            routeEntry.put("max", routeStats.getMax());
+            routes.put(route.getTargetHost().toHostString(), routeEntry);
+        }
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    // Starts the deadline when the request is sent and cancels it when the response is closed
+    private class DeadlineRequest implements ClientHttpRequest {
+        private final ClientHttpRequest delegate;
+        private final HttpRequestBase httpRequest;
+
+        DeadlineRequest(ClientHttpRequest delegate, HttpRequestBase httpRequest) {
+            this.delegate = delegate;
+            this.httpRequest = httpRequest;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ScheduledFuture<?> deadline = deadlineExecutor.schedule(() -> {
+                deadlineAborts.incrementAndGet();
+                System.err.println("[HttpClient] Aborting " + httpRequest.getMethod() + " " + httpRequest.getURI().getHost() +
+                    " after total timeout of " + totalTimeoutMs + "ms");
+                httpRequest.abort();
+            }, totalTimeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                return new DeadlineResponse(delegate.execute(), deadline);
+            } catch (IOException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public String getMethodValue() {
+            return delegate.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+    }
+
+    private static class DeadlineResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> deadline;
+
+        DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> deadline) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            deadline.cancel(false);
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.quat.cryptoNotifier.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared outbound HTTP stack: one pooled, keep-alive Apache HttpClient behind a single
+ * RestTemplate used by every caller (CoinGecko, Gemini). HttpClient negotiates gzip and
+ * deflate and decompresses responses transparently.
+ */
+@Configuration
+public class RestTemplateConfig {
+
+    @Autowired
+    private HttpClientConfig httpClientConfig;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+            httpClientConfig.getKeepAliveSeconds(), TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(httpClientConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientConfig.getMaxConnectionsPerRoute());
+        // Check pooled connections idle for over 2s before reuse; servers drop idle keep-alives
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(httpClientConfig.getConnectTimeoutMs())
+            .setConnectionRequestTimeout(httpClientConfig.getConnectionRequestTimeoutMs())
+            .setSocketTimeout(httpClientConfig.getReadTimeoutMs())
+            .build();
+        long maxKeepAliveMs = TimeUnit.SECONDS.toMillis(httpClientConfig.getKeepAliveSeconds());
+
+        return HttpClients.custom()
+            .setConnectionManager(httpConnectionManager)
+            // Closed by its own bean, not by the client
+            .setConnectionManagerShared(true)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> {
+                long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAliveMs) : maxKeepAliveMs;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(httpClientConfig.getIdleEvictSeconds(), TimeUnit.SECONDS)
+            .build();
+    }
+
+    @Bean
+    public PooledHttpRequestFactory pooledHttpRequestFactory(CloseableHttpClient httpClient,
+                                                             PoolingHttpClientConnectionManager httpConnectionManager) {
+        return new PooledHttpRequestFactory(httpClient, httpConnectionManager, httpClientConfig.getTotalTimeoutMs());
+    }
+
+    @Bean
+    public RestTemplate restTemplate(PooledHttpRequestFactory pooledHttpRequestFactory) {
+        return new RestTemplate(pooledHttpRequestFactory);
+    }
+}
@@ -4,6 +4,14 @@ import com.quat.cryptoNotifier.service.SchedulerService;
 import com.quat.cryptoNotifier.service.AdvisoryEngineService;
 import com.quat.cryptoNotifier.service.EmailService;
 import com.quat.cryptoNotifier.service.DataProviderService;
+import com.quat.cryptoNotifier.service.CoinGeckoRateLimiter;
+import com.quat.cryptoNotifier.service.CoinGeckoMarketDataProvider;
+import com.quat.cryptoNotifier.service.MarketDataRefreshScheduler;
+import com.quat.cryptoNotifier.service.IntradayCandleService;
+import com.quat.cryptoNotifier.service.HedgedMarketDataProvider;
+import com.quat.cryptoNotifier.service.HistoryBackfillService;
+import com.quat.cryptoNotifier.service.MarketDataCacheService;
+import com.quat.cryptoNotifier.config.PooledHttpRequestFactory;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.Holdings;
 import com.quat.cryptoNotifier.model.MarketData;
@@ -50,6 +58,30 @@ public class CryptoController {
     @Autowired
     private DataProviderService dataProviderService;
 
+    @Autowired
+    private CoinGeckoRateLimiter coinGeckoRateLimiter;
+
+    @Autowired
+    private PooledHttpRequestFactory pooledHttpRequestFactory;
+
+    @Autowired
+    private CoinGeckoMarketDataProvider coinGeckoMarketDataProvider;
+
+    @Autowired
+    private MarketDataRefreshScheduler marketDataRefreshScheduler;
+
+    @Autowired
+    private IntradayCandleService intradayCandleService;
+
+    @Autowired
+    private MarketDataCacheService marketDataCacheService;
+
+    @Autowired
+    private HedgedMarketDataProvider hedgedMarketDataProvider;
+
+    @Autowired
+    private HistoryBackfillService historyBackfillService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @GetMapping("/trigger-advisory")
@@ -174,6 +206,78 @@ public class CryptoController {
         return "Crypto Advisory Service is running";
     }
 
+    @GetMapping("/market-data")
+    public ResponseEntity<MarketData> getMarketData(@RequestParam String id) {
+        try {
+            return ResponseEntity.ok(dataProviderService.getMarketData(id));
+        } catch (Exception e) {
+            System.err.println("Error fetching market data for " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/market-data/cache")
+    public Map<String, Object> getMarketDataCacheMetrics() {
+        return marketDataCacheService.getCacheMetrics();
+    }
+
+    @GetMapping("/market-data/cache/entries")
+    public List<Map<String, Object>> getMarketDataCacheEntries() {
+        return marketDataCacheService.getCacheEntries();
+    }
+
+    @GetMapping("/market-data/rate-limiter")
+    public Map<String, Object> getRateLimiterStats() {
+        return coinGeckoRateLimiter.getStats();
+    }
+
+    @GetMapping("/market-data/conditional-requests")
+    public Map<String, Object> getConditionalRequestStats() {
+        return coinGeckoMarketDataProvider.getStats();
+    }
+
+    @GetMapping("/market-data/providers")
+    public Map<String, Object> getProviderStats() {
+        return hedgedMarketDataProvider.getStats();
+    }
+
+    @PostMapping("/market-data/backfill")
+    public Map<String, Object> startHistoryBackfill(@RequestParam(defaultValue = "0") int years,
+                                                    @RequestParam(defaultValue = "false") boolean rebuild) {
+        return historyBackfillService.startBackfill(years, rebuild);
+    }
+
+    @GetMapping("/market-data/backfill")
+    public Map<String, Object> getHistoryBackfillStatus() {
+        return historyBackfillService.getStatus();
+    }
+
+    @GetMapping("/market-data/refresh-schedule")
+    public List<Map<String, Object>> getRefreshSchedule() {
+        return marketDataRefreshScheduler.getSchedule();
+    }
+
+    @GetMapping("/market-data/candles")
+    public ResponseEntity<List<Map<String, Object>>> getIntradayCandles(@RequestParam String id,
+                                                                       @RequestParam(defaultValue = "1h") String timeframe,
+                                                                       @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(intradayCandleService.getCandleRows(id, IntradayCandleService.Timeframe.fromLabel(timeframe), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/market-data/candles/stats")
+    public Map<String, Object> getIntradayCandleStats() {
+        return intradayCandleService.getStats();
+    }
+
+    @GetMapping("/http-client/pool")
+    public Map<String, Object> getHttpClientPoolStats() {
+        return pooledHttpRequestFactory.getStats();
+    }
+
     @PostMapping("/reorder-holdings")
     public String reorderHoldingsByTotalAvgCost(@RequestParam(defaultValue = "desc") String order,
                                                @RequestParam(defaultValue = "total_avg_cost") String sortBy) {
@@ -0,0 +1,208 @@
+package com.quat.cryptoNotifier.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Fixed-size ring buffer of OHLCV candles for one coin and one timeframe, stored as
+ * parallel primitive arrays. Ticks are folded into the candle whose interval contains
+ * them; once full, each new candle overwrites the oldest one.
+ *
+ * Spot polling carries no per-interval traded volume, so a candle's volume is the
+ * rolling 24h volume at its last tick prorated to the candle interval.
+ */
+public class CandleRingBuffer {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private final long intervalMs;
+    private final long[] openTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private int head; // index of the oldest candle
+    private int size;
+
+    public CandleRingBuffer(long intervalMs, int capacity) {
+        if (intervalMs <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Interval and capacity must be positive");
+        }
+        this.intervalMs = intervalMs;
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new double[capacity];
+    }
+
+    /**
+     * Fold a price tick into the current candle, or start a new one when the tick falls
+     * into a later interval. Ticks older than the newest candle are ignored.
+     */
+    public synchronized void update(long timestamp, double price, double volume24h) {
+        long openTime = timestamp - Math.floorMod(timestamp, intervalMs);
+        double volume = volume24h * intervalMs / DAY_MS;
+
+        if (size > 0) {
+            int last = physicalIndex(size - 1);
+            if (openTime == openTimes[last]) {
+                highs[last] = Math.max(highs[last], price);
+                lows[last] = Math.min(lows[last], price);
+                closes[last] = price;
+                volumes[last] = volume;
+                return;
+            }
+            if (openTime < openTimes[last]) {
+                return;
+            }
+        }
+
+        appendCandle(openTime, price, price, price, price, volume);
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public int capacity() {
+        return openTimes.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Accessors by chronological index, 0 = oldest candle still held
+    public synchronized long openTimeAt(int index) {
+        return openTimes[checkedIndex(index)];
+    }
+
+    public synchronized double openAt(int index) {
+        return opens[checkedIndex(index)];
+    }
+
+    public synchronized double highAt(int index) {
+        return highs[checkedIndex(index)];
+    }
+
+    public synchronized double lowAt(int index) {
+        return lows[checkedIndex(index)];
+    }
+
+    public synchronized double closeAt(int index) {
+        return closes[checkedIndex(index)];
+    }
+
+    public synchronized double volumeAt(int index) {
+        return volumes[checkedIndex(index)];
+    }
+
+    /**
+     * Closes in chronological order, sized to the candle count, for the indicator utilities
+     */
+    public synchronized double[] copyCloses() {
+        return copyChronological(closes);
+    }
+
+    public synchronized double[] copyHighs() {
+        return copyChronological(highs);
+    }
+
+    public synchronized double[] copyLows() {
+        return copyChronological(lows);
+    }
+
+    public synchronized double[] copyVolumes() {
+        return copyChronological(volumes);
+    }
+
+    public synchronized long[] copyOpenTimes() {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = openTimes[physicalIndex(i)];
+        }
+        return copy;
+    }
+
+    /**
+     * Write interval, capacity and candles (oldest first) for the on-disk spill
+     */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(intervalMs);
+        out.writeInt(capacity());
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = physicalIndex(i);
+            out.writeLong(openTimes[slot]);
+            out.writeDouble(opens[slot]);
+            out.writeDouble(highs[slot]);
+            out.writeDouble(lows[slot]);
+            out.writeDouble(closes[slot]);
+            out.writeDouble(volumes[slot]);
+        }
+    }
+
+    /**
+     * Read a spilled buffer into one with the given capacity, keeping the newest candles
+     * when the capacity has shrunk since the spill
+     */
+    public static CandleRingBuffer readFrom(DataInputStream in, int capacity) throws IOException {
+        long intervalMs = in.readLong();
+        in.readInt(); // spilled capacity
+        int count = in.readInt();
+        CandleRingBuffer buffer = new CandleRingBuffer(intervalMs, capacity);
+        for (int i = 0; i < count; i++) {
+            long openTime = in.readLong();
+            double open = in.readDouble();
+            double high = in.readDouble();
+            double low = in.readDouble();
+            double close = in.readDouble();
+            double volume = in.readDouble();
+            buffer.appendCandle(openTime, open, high, low, close, volume);
+        }
+        return buffer;
+    }
+
+    private void appendCandle(long openTime, double open, double high, double low, double close, double volume) {
+        int slot;
+        if (size < capacity()) {
+            slot = physicalIndex(size);
+            size++;
+        } else {
+            slot = head;
+            head = (head + 1) % capacity();
+        }
+        openTimes[slot] = openTime;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+    }
+
+    private double[] copyChronological(double[] column) {
+        double[] copy = new double[size];
+        int firstRun = Math.min(size, capacity() - head);
+        System.arraycopy(column, head, copy, 0, firstRun);
+        System.arraycopy(column, 0, copy, firstRun, size - firstRun);
+        return copy;
+    }
+
+    private int physicalIndex(int index) {
+        return (head + index) % capacity();
+    }
+
+    private int checkedIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return physicalIndex(index);
+    }
+}
@@ -0,0 +1,98 @@
+package com.quat.cryptoNotifier.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact view of the holdings' return correlations over one window: the most
+ * correlated pairs, clusters of assets that move together, and the holdings left out
+ * for lack of history.
+ */
+public class CorrelationSummary {
+    private int windowDays;
+    private int assetCount;
+    private Double averageCorrelation;
+    private List<CorrelatedPair> topPairs = new ArrayList<>();
+    private List<List<String>> clusters = new ArrayList<>();
+    private List<String> excluded = new ArrayList<>();
+
+    public CorrelationSummary() {}
+
+    public CorrelationSummary(int windowDays) {
+        this.windowDays = windowDays;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public void setWindowDays(int windowDays) {
+        this.windowDays = windowDays;
+    }
+
+    public int getAssetCount() {
+        return assetCount;
+    }
+
+    public void setAssetCount(int assetCount) {
+        this.assetCount = assetCount;
+    }
+
+    public Double getAverageCorrelation() {
+        return averageCorrelation;
+    }
+
+    public void setAverageCorrelation(Double averageCorrelation) {
+        this.averageCorrelation = averageCorrelation;
+    }
+
+    public List<CorrelatedPair> getTopPairs() {
+        return topPairs;
+    }
+
+    public void setTopPairs(List<CorrelatedPair> topPairs) {
+        this.topPairs = topPairs;
+    }
+
+    public List<List<String>> getClusters() {
+        return clusters;
+    }
+
+    public void setClusters(List<List<String>> clusters) {
+        this.clusters = clusters;
+    }
+
+    public List<String> getExcluded() {
+        return excluded;
+    }
+
+    public void setExcluded(List<String> excluded) {
+        this.excluded = excluded;
+    }
+
+    public static class CorrelatedPair {
+        private String first;
+        private String second;
+        private double correlation;
+
+        public CorrelatedPair() {}
+
+        public CorrelatedPair(String first, String second, double correlation) {
+            this.first = first;
+            this.second = second;
+            this.correlation = correlation;
+        }
+
+        public String getFirst() {
+            return first;
+        }
+
+        public String getSecond() {
+            return second;
+        }
+
+        public double getCorrelation() {
+            return correlation;
+        }
+    }
+}
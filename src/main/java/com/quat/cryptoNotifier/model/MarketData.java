@@ -1,5 +1,8 @@
 package com.quat.cryptoNotifier.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,13 +13,31 @@ public class MarketData {
     private double priceChangePercentage24h;
     private double volume24h;
     private double marketCap;  // Added missing field
-    private List<Double> prices;  // For technical indicators
+    private PriceSeries priceSeries;  // Daily closes for technical indicators
     private LocalDateTime timestamp;
+    private boolean stale;  // Served from an expired cache entry while a refresh runs; not persisted by the store
 
     // Technical indicators
     private Double rsi;
     private Double macd;
     private Double macdSignal;
+    private Double macdHistogram;
+    // Most recent MACD/signal crossover in the daily series: BULLISH or BEARISH, null if none recently
+    private String macdCrossover;
+    private Integer macdCrossoverDaysAgo;
+    // Volatility, momentum and volume indicators over the daily series (close-only ranges)
+    private Double bollingerUpper;
+    private Double bollingerMiddle;
+    private Double bollingerLower;
+    private Double atr;
+    private Double stochasticK;
+    private Double stochasticD;
+    private Double obv;
+    private Double obvChange20d;
+    private Double adx;
+    private Double plusDi;
+    private Double minusDi;
+    private Double vwap20d;
     private Double sma20;
     private Double sma50;
     private Double sma200;
@@ -29,6 +50,44 @@ public class MarketData {
         this.timestamp = LocalDateTime.now();
     }
 
+    /**
+     * Shallow copy; the price series is shared, so it must not be modified through either
+     */
+    public MarketData copy() {
+        MarketData copy = new MarketData();
+        copy.symbol = symbol;
+        copy.currentPrice = currentPrice;
+        copy.priceChange24h = priceChange24h;
+        copy.priceChangePercentage24h = priceChangePercentage24h;
+        copy.volume24h = volume24h;
+        copy.marketCap = marketCap;
+        copy.priceSeries = priceSeries;
+        copy.timestamp = timestamp;
+        copy.stale = stale;
+        copy.rsi = rsi;
+        copy.macd = macd;
+        copy.macdSignal = macdSignal;
+        copy.macdHistogram = macdHistogram;
+        copy.macdCrossover = macdCrossover;
+        copy.macdCrossoverDaysAgo = macdCrossoverDaysAgo;
+        copy.bollingerUpper = bollingerUpper;
+        copy.bollingerMiddle = bollingerMiddle;
+        copy.bollingerLower = bollingerLower;
+        copy.atr = atr;
+        copy.stochasticK = stochasticK;
+        copy.stochasticD = stochasticD;
+        copy.obv = obv;
+        copy.obvChange20d = obvChange20d;
+        copy.adx = adx;
+        copy.plusDi = plusDi;
+        copy.minusDi = minusDi;
+        copy.vwap20d = vwap20d;
+        copy.sma20 = sma20;
+        copy.sma50 = sma50;
+        copy.sma200 = sma200;
+        return copy;
+    }
+
     // Getters and Setters
     public String getSymbol() {
         return symbol;
@@ -79,12 +138,52 @@ public class MarketData {
         this.marketCap = marketCap;
     }
 
+    public PriceSeries getPriceSeries() {
+        return priceSeries;
+    }
+
+    public void setPriceSeries(PriceSeries priceSeries) {
+        this.priceSeries = priceSeries;
+    }
+
+    /**
+     * Read-only view of the daily closes, kept for callers written against List<Double>
+     */
+    @JsonIgnore
     public List<Double> getPrices() {
-        return prices;
+        return priceSeries != null ? priceSeries.asList() : null;
     }
 
+    // Cache entries written before PriceSeries stored plain "prices"/"priceTimestamps" lists
+    @JsonProperty("prices")
     public void setPrices(List<Double> prices) {
-        this.prices = prices;
+        PriceSeries series = prices != null ? PriceSeries.ofCloses(prices) : null;
+        if (series != null && priceSeries != null && priceSeries.size() == series.size()) {
+            // Timestamps were read first and are sitting in a placeholder series
+            for (int i = 0; i < series.size(); i++) {
+                series.timestampsArray()[i] = priceSeries.timestampAt(i);
+            }
+        }
+        this.priceSeries = series;
+    }
+
+    @JsonProperty("priceTimestamps")
+    public void setPriceTimestamps(List<Long> priceTimestamps) {
+        if (priceTimestamps == null) {
+            return;
+        }
+        if (priceSeries == null) {
+            // Placeholder until "prices" is read
+            priceSeries = new PriceSeries(priceTimestamps.size());
+            for (Long timestamp : priceTimestamps) {
+                priceSeries.append(timestamp != null ? timestamp : 0L, Double.NaN);
+            }
+        } else if (priceSeries.size() == priceTimestamps.size()) {
+            for (int i = 0; i < priceTimestamps.size(); i++) {
+                Long timestamp = priceTimestamps.get(i);
+                priceSeries.timestampsArray()[i] = timestamp != null ? timestamp : 0L;
+            }
+        }
     }
 
     public LocalDateTime getTimestamp() {
@@ -95,6 +194,14 @@ public class MarketData {
         this.timestamp = timestamp;
     }
 
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
     public Double getRsi() {
         return rsi;
     }
@@ -119,6 +226,126 @@ public class MarketData {
         this.macdSignal = macdSignal;
     }
 
+    public Double getMacdHistogram() {
+        return macdHistogram;
+    }
+
+    public void setMacdHistogram(Double macdHistogram) {
+        this.macdHistogram = macdHistogram;
+    }
+
+    public String getMacdCrossover() {
+        return macdCrossover;
+    }
+
+    public void setMacdCrossover(String macdCrossover) {
+        this.macdCrossover = macdCrossover;
+    }
+
+    public Integer getMacdCrossoverDaysAgo() {
+        return macdCrossoverDaysAgo;
+    }
+
+    public void setMacdCrossoverDaysAgo(Integer macdCrossoverDaysAgo) {
+        this.macdCrossoverDaysAgo = macdCrossoverDaysAgo;
+    }
+
+    public Double getBollingerUpper() {
+        return bollingerUpper;
+    }
+
+    public void setBollingerUpper(Double bollingerUpper) {
+        this.bollingerUpper = bollingerUpper;
+    }
+
+    public Double getBollingerMiddle() {
+        return bollingerMiddle;
+    }
+
+    public void setBollingerMiddle(Double bollingerMiddle) {
+        this.bollingerMiddle = bollingerMiddle;
+    }
+
+    public Double getBollingerLower() {
+        return bollingerLower;
+    }
+
+    public void setBollingerLower(Double bollingerLower) {
+        this.bollingerLower = bollingerLower;
+    }
+
+    public Double getAtr() {
+        return atr;
+    }
+
+    public void setAtr(Double atr) {
+        this.atr = atr;
+    }
+
+    public Double getStochasticK() {
+        return stochasticK;
+    }
+
+    public void setStochasticK(Double stochasticK) {
+        this.stochasticK = stochasticK;
+    }
+
+    public Double getStochasticD() {
+        return stochasticD;
+    }
+
+    public void setStochasticD(Double stochasticD) {
+        this.stochasticD = stochasticD;
+    }
+
+    public Double getObv() {
+        return obv;
+    }
+
+    public void setObv(Double obv) {
+        this.obv = obv;
+    }
+
+    public Double getObvChange20d() {
+        return obvChange20d;
+    }
+
+    public void setObvChange20d(Double obvChange20d) {
+        this.obvChange20d = obvChange20d;
+    }
+
+    public Double getAdx() {
+        return adx;
+    }
+
+    public void setAdx(Double adx) {
+        this.adx = adx;
+    }
+
+    public Double getPlusDi() {
+        return plusDi;
+    }
+
+    public void setPlusDi(Double plusDi) {
+        this.plusDi = plusDi;
+    }
+
+    public Double getMinusDi() {
+        return minusDi;
+    }
+
+    public void setMinusDi(Double minusDi) {
+        this.minusDi = minusDi;
+    }
+
+    public Double getVwap20d() {
+        return vwap20d;
+    }
+
+    public void setVwap20d(Double vwap20d) {
+        this.vwap20d = vwap20d;
+    }
+
     public Double getSma20() {
         return sma20;
     }
@@ -0,0 +1,57 @@
+package com.quat.cryptoNotifier.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Market data for every holding, captured once at the start of an advisory run and
+ * shared by all report builders in that run, so every report sees the same prices.
+ * The snapshot itself cannot be modified; the MarketData it holds must be treated as
+ * read-only too.
+ */
+public final class MarketSnapshot {
+    private final Map<String, MarketData> marketData;
+    private final Map<String, String> failures;
+    private final LocalDateTime createdAt;
+
+    public MarketSnapshot(Map<String, MarketData> marketData, Map<String, String> failures) {
+        this.marketData = Collections.unmodifiableMap(new LinkedHashMap<>(marketData));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Market data for a coin; throws if the coin could not be loaded when the snapshot was taken
+     */
+    public MarketData getMarketData(String coinGeckoId) {
+        MarketData data = marketData.get(coinGeckoId);
+        if (data == null) {
+            String failure = failures.get(coinGeckoId);
+            throw new IllegalStateException("No market data for " + coinGeckoId + " in snapshot" +
+                (failure != null ? ": " + failure : ""));
+        }
+        return data;
+    }
+
+    public boolean contains(String coinGeckoId) {
+        return marketData.containsKey(coinGeckoId);
+    }
+
+    public Map<String, MarketData> asMap() {
+        return marketData;
+    }
+
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return marketData.size();
+    }
+}
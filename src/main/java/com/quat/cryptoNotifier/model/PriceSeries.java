@@ -0,0 +1,230 @@
+package com.quat.cryptoNotifier.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact time series of closes: parallel primitive arrays of epoch-millis timestamps
+ * and prices, in timestamp order, with optional total volume and market cap columns
+ * (NaN where unknown). Avoids a boxed Long/Double per point and lets indicator code
+ * scan the closes without unboxing.
+ *
+ * Points are appended at the end; the arrays grow as needed and are trimmed when
+ * serialized, so the JSON form is {"timestamps":[...],"closes":[...],"volumes":[...],"marketCaps":[...]}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PriceSeries {
+    private long[] timestamps;
+    private double[] closes;
+    private double[] volumes;
+    private double[] marketCaps;
+    private int size;
+
+    public PriceSeries() {
+        this(16);
+    }
+
+    public PriceSeries(int capacity) {
+        this.timestamps = new long[Math.max(1, capacity)];
+        this.closes = new double[Math.max(1, capacity)];
+        this.volumes = new double[Math.max(1, capacity)];
+        this.marketCaps = new double[Math.max(1, capacity)];
+    }
+
+    /**
+     * Wrap existing arrays without copying; the series takes ownership of them
+     */
+    public PriceSeries(long[] timestamps, double[] closes) {
+        this(timestamps, closes, null, null);
+    }
+
+    /**
+     * Wrap existing arrays without copying. Missing volume or market cap columns
+     * (series stored before they were tracked) are filled with NaN.
+     */
+    @JsonCreator
+    public PriceSeries(@JsonProperty("timestamps") long[] timestamps, @JsonProperty("closes") double[] closes,
+                       @JsonProperty("volumes") double[] volumes, @JsonProperty("marketCaps") double[] marketCaps) {
+        this.timestamps = timestamps != null ? timestamps : new long[0];
+        this.closes = closes != null ? closes : new double[0];
+        this.size = Math.min(this.timestamps.length, this.closes.length);
+        this.volumes = column(volumes, this.closes.length);
+        this.marketCaps = column(marketCaps, this.closes.length);
+    }
+
+    /**
+     * Series with only closes (legacy cache entries stored no timestamps); timestamps are 0
+     */
+    public static PriceSeries ofCloses(List<Double> prices) {
+        PriceSeries series = new PriceSeries(prices.size());
+        for (Double price : prices) {
+            series.append(0L, price != null ? price : Double.NaN);
+        }
+        return series;
+    }
+
+    public void append(long timestamp, double close) {
+        append(timestamp, close, Double.NaN, Double.NaN);
+    }
+
+    public void append(long timestamp, double close, double volume, double marketCap) {
+        if (size == closes.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            marketCaps = Arrays.copyOf(marketCaps, capacity);
+        }
+        timestamps[size] = timestamp;
+        closes[size] = close;
+        volumes[size] = volume;
+        marketCaps[size] = marketCap;
+        size++;
+    }
+
+    /**
+     * Overwrite the most recent point, e.g. when a later price for the same day arrives
+     */
+    public void replaceLast(long timestamp, double close, double volume, double marketCap) {
+        if (size == 0) {
+            throw new IllegalStateException("Series is empty");
+        }
+        timestamps[size - 1] = timestamp;
+        closes[size - 1] = close;
+        volumes[size - 1] = volume;
+        marketCaps[size - 1] = marketCap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestampAt(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public double closeAt(int index) {
+        checkIndex(index);
+        return closes[index];
+    }
+
+    public double volumeAt(int index) {
+        checkIndex(index);
+        return volumes[index];
+    }
+
+    public double marketCapAt(int index) {
+        checkIndex(index);
+        return marketCaps[index];
+    }
+
+    public long lastTimestamp() {
+        return timestampAt(size - 1);
+    }
+
+    public double lastClose() {
+        return closeAt(size - 1);
+    }
+
+    /**
+     * Backing close array for hot loops; only the first size() elements are valid
+     * and the array must not be modified
+     */
+    public double[] closesArray() {
+        return closes;
+    }
+
+    /**
+     * Backing timestamp array; only the first size() elements are valid
+     */
+    public long[] timestampsArray() {
+        return timestamps;
+    }
+
+    /**
+     * Backing volume array; only the first size() elements are valid
+     */
+    public double[] volumesArray() {
+        return volumes;
+    }
+
+    /**
+     * Copy of the most recent count points
+     */
+    public PriceSeries tail(int count) {
+        int from = Math.max(0, size - count);
+        return new PriceSeries(Arrays.copyOfRange(timestamps, from, size), Arrays.copyOfRange(closes, from, size),
+            Arrays.copyOfRange(volumes, from, size), Arrays.copyOfRange(marketCaps, from, size));
+    }
+
+    /**
+     * Read-only List view of the closes, for callers that still expect List&lt;Double&gt;
+     */
+    public List<Double> asList() {
+        return new ClosesView();
+    }
+
+    // JSON form: arrays trimmed to size
+    @JsonProperty("timestamps")
+    public long[] getTimestamps() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    @JsonProperty("closes")
+    public double[] getCloses() {
+        return Arrays.copyOf(closes, size);
+    }
+
+    @JsonProperty("volumes")
+    public double[] getVolumes() {
+        return Arrays.copyOf(volumes, size);
+    }
+
+    @JsonProperty("marketCaps")
+    public double[] getMarketCaps() {
+        return Arrays.copyOf(marketCaps, size);
+    }
+
+    private static double[] column(double[] values, int length) {
+        if (values != null && values.length >= length) {
+            return values;
+        }
+        double[] column = new double[length];
+        Arrays.fill(column, Double.NaN);
+        if (values != null) {
+            System.arraycopy(values, 0, column, 0, values.length);
+        }
+        return column;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private class ClosesView extends AbstractList<Double> implements RandomAccess {
+        @Override
+        public Double get(int index) {
+            return closeAt(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,9 +24,6 @@ public class AdvisorAIService {
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
-    @Autowired
-    private DataProviderService dataProviderService;
-
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -34,7 +32,7 @@ public class AdvisorAIService {
      * @param holdings Current portfolio holdings
      * @return Formatted prompt string
      */
-    public String buildInvestmentStrategyPrompt(List<Holding> holdings) {
+    public String buildInvestmentStrategyPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         
         prompt.append("Investment Strategy & Target Price Review Analysis\n");
@@ -70,7 +68,7 @@ public class AdvisorAIService {
             // Get current price from market data
             double currentPrice = holding.getAveragePrice(); // fallback to avg price
             try {
-                MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                MarketData marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     currentPrice = marketData.getCurrentPrice();
                 }
@@ -117,7 +115,7 @@ public class AdvisorAIService {
         try {
             for (Holding holding : holdings) {
                 if (holding.getSymbol().equals("USDT")) continue;
-                MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                MarketData marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     double currentPrice = marketData.getCurrentPrice();
                     double priceChange24h = marketData.getPriceChangePercentage24h();
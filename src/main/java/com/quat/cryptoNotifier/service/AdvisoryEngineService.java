@@ -6,8 +6,10 @@ import com.quat.cryptoNotifier.config.AppConfig;
 import com.quat.cryptoNotifier.model.Advisory;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +33,7 @@ public class AdvisoryEngineService {
     private AppConfig appConfig;
     
     @Autowired
-    private DataProviderService dataProviderService;
+    private MarketSnapshotService marketSnapshotService;
 
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
@@ -66,16 +68,21 @@ public class AdvisoryEngineService {
     @Autowired
     private TechnicalAnalysisService technicalAnalysisService;
 
-    private final RestTemplate restTemplate;
+    @Autowired
+    private RestTemplate restTemplate;
+
     private final ObjectMapper objectMapper;
 
     public AdvisoryEngineService() {
-        this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
 
     public Map<String, Object> generateRiskOpportunityAnalysis(List<Holding> holdings) {
-        String prompt = riskOpportunityAnalysisService.buildRiskOpportunityPrompt(holdings);
+        return generateRiskOpportunityAnalysis(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateRiskOpportunityAnalysis(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = riskOpportunityAnalysisService.buildRiskOpportunityPrompt(holdings, snapshot);
         System.out.println("Risk & Opportunity Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Risk & Opportunity Analysis AI Response: " + aiResponse);
@@ -86,7 +93,11 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generatePortfolioHealthCheck(List<Holding> holdings) {
-        String prompt = portfolioHealthCheckAnalysisService.buildPortfolioHealthCheckPrompt(holdings);
+        return generatePortfolioHealthCheck(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generatePortfolioHealthCheck(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = portfolioHealthCheckAnalysisService.buildPortfolioHealthCheckPrompt(holdings, snapshot);
         System.out.println("Portfolio Health Check Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Portfolio Health Check AI Response: " + aiResponse);
@@ -98,7 +109,11 @@ public class AdvisoryEngineService {
     
 
     public Map<String, Object> generateOpportunityFinder(List<Holding> holdings) {
-        String prompt = opportunityFinderAnalysisService.buildOpportunityFinderPrompt(holdings);
+        return generateOpportunityFinder(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateOpportunityFinder(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = opportunityFinderAnalysisService.buildOpportunityFinderPrompt(holdings, snapshot);
         System.out.println("Opportunity Finder Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Opportunity Finder AI Response: " + aiResponse);
@@ -109,7 +124,11 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generatePortfolioOptimizationAnalysis(List<Holding> holdings) {
-        String prompt = portfolioOptimizationAnalysisService.buildPortfolioOptimizationPrompt(holdings);
+        return generatePortfolioOptimizationAnalysis(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generatePortfolioOptimizationAnalysis(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = portfolioOptimizationAnalysisService.buildPortfolioOptimizationPrompt(holdings, snapshot);
         System.out.println("Portfolio Optimization Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Portfolio Optimization Analysis AI Response: " + aiResponse);
@@ -120,7 +139,11 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generateEntryExitStrategy(List<Holding> holdings) {
-        String prompt = entryExitStrategyAnalysisService.buildEntryExitStrategyPrompt(holdings);
+        return generateEntryExitStrategy(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateEntryExitStrategy(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = entryExitStrategyAnalysisService.buildEntryExitStrategyPrompt(holdings, snapshot);
         System.out.println("Entry & Exit Strategy Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Entry & Exit Strategy Analysis AI Response: " + aiResponse);
@@ -131,13 +154,17 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generateUSDTAllocationStrategy(List<Holding> holdings) {
+        return generateUSDTAllocationStrategy(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateUSDTAllocationStrategy(List<Holding> holdings, MarketSnapshot snapshot) {
         double usdtAmount = holdings.stream()
                 .filter(h -> h.getSymbol().equalsIgnoreCase("USDT"))
                 .findFirst()
                 .map(Holding::getHoldings)
                 .orElse(0.0);
 
-        String prompt = usdtAllocationAnalysisService.buildUSDTAllocationPrompt(holdings, usdtAmount);
+        String prompt = usdtAllocationAnalysisService.buildUSDTAllocationPrompt(holdings, usdtAmount, snapshot);
         System.out.println("USDT Allocation Strategy Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("USDT Allocation Strategy AI Response: " + aiResponse);
@@ -148,7 +175,11 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generateInvestmentStrategyAnalysis(List<Holding> holdings) {
-        String prompt = advisorAIService.buildInvestmentStrategyPrompt(holdings);
+        return generateInvestmentStrategyAnalysis(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateInvestmentStrategyAnalysis(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = advisorAIService.buildInvestmentStrategyPrompt(holdings, snapshot);
         System.out.println("Investment Strategy Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Investment Strategy Analysis AI Response: " + aiResponse);
@@ -159,7 +190,11 @@ public class AdvisoryEngineService {
     }
 
     public Map<String, Object> generateTechnicalAnalysis(List<Holding> holdings) {
-        String prompt = technicalAnalysisService.buildTechnicalAnalysisPrompt(holdings);
+        return generateTechnicalAnalysis(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generateTechnicalAnalysis(List<Holding> holdings, MarketSnapshot snapshot) {
+        String prompt = technicalAnalysisService.buildTechnicalAnalysisPrompt(holdings, snapshot);
         System.out.println("Investment Strategy Analysis Prompt: " + prompt);
         String aiResponse = callGeminiAPI(prompt);
         System.out.println("Investment Strategy Analysis AI Response: " + aiResponse);
@@ -257,9 +292,13 @@ public class AdvisoryEngineService {
 
     // Investment Analysis Methods
     public Map<String, Object> generateInvestmentAnalysis(Holding holding) {
+        return generateInvestmentAnalysis(holding, marketSnapshotService.createSnapshot(Collections.singletonList(holding)));
+    }
+
+    public Map<String, Object> generateInvestmentAnalysis(Holding holding, MarketSnapshot snapshot) {
         try {
-            // Fetch market data for the specified crypto using DataProviderService
-            MarketData marketData = dataProviderService.getMarketData(holding.getId());
+            // Market data for the specified crypto from the run's snapshot
+            MarketData marketData = snapshot.getMarketData(holding.getId());
             
             // Convert MarketData to Map for compatibility with prompt builder
             Map<String, Object> marketDataMap = convertMarketDataToMap(marketData);
@@ -312,8 +351,12 @@ public class AdvisoryEngineService {
      * @return Map containing portfolio data with comprehensive analysis
      */
     public Map<String, Object> generatePortfolioTable(List<Holding> holdings) {
+        return generatePortfolioTable(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public Map<String, Object> generatePortfolioTable(List<Holding> holdings, MarketSnapshot snapshot) {
         // First get the basic portfolio data without AI recommendations
-        Map<String, Object> portfolioData = portfolioTableService.generatePortfolioTable(holdings);
+        Map<String, Object> portfolioData = portfolioTableService.generatePortfolioTable(holdings, snapshot);
         
         // Then add AI recommendations to each row
         addAIRecommendationsToPortfolioData(portfolioData);
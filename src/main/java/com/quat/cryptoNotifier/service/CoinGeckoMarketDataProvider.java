@@ -0,0 +1,333 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.MarketChartParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live market data from the CoinGecko public API, paced by the shared rate limiter.
+ *
+ * Requests ask for gzip and are made conditional: the ETag/Last-Modified of each URL's
+ * last response is kept along with its parsed result, so a 304 Not Modified costs no
+ * body transfer or parsing and simply hands back the previous result.
+ */
+@Service
+public class CoinGeckoMarketDataProvider implements MarketDataProvider {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private CoinGeckoRateLimiter rateLimiter;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MarketDataMetrics marketDataMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Validators and parsed result of the last 200 response per URL, least recently used evicted first
+    private final Map<String, ConditionalEntry> conditionalCache;
+    private final AtomicLong conditionalRequests = new AtomicLong();
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+
+    private static final String COINGECKO_API_BASE = "https://api.coingecko.com/api/v3";
+    // CoinGecko accepts a comma-separated ids list on /simple/price; keep URLs reasonably short
+    private static final int PRICE_BATCH_SIZE = 50;
+
+    public CoinGeckoMarketDataProvider() {
+        this.conditionalCache = Collections.synchronizedMap(new LinkedHashMap<String, ConditionalEntry>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConditionalEntry> eldest) {
+                return size() > marketDataConfig.getConditionalCacheEntries();
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "coingecko";
+    }
+
+    /**
+     * Batched /simple/price calls, PRICE_BATCH_SIZE coins per request
+     */
+    @Override
+    public Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException {
+        Map<String, MarketData> result = new LinkedHashMap<>();
+
+        for (int start = 0; start < coinGeckoIds.size(); start += PRICE_BATCH_SIZE) {
+            List<String> batch = coinGeckoIds.subList(start, Math.min(start + PRICE_BATCH_SIZE, coinGeckoIds.size()));
+            String priceUrl = String.format("%s/simple/price?ids=%s&vs_currencies=usd&include_market_cap=true&include_24hr_change=true&include_24hr_vol=true",
+                COINGECKO_API_BASE, String.join(",", batch));
+            System.out.println("[CoinGecko] Fetching prices for " + batch.size() + " coins from: " + priceUrl);
+            JsonNode priceNode = executeConditional(priceUrl, MarketDataMetrics.ENDPOINT_PRICE, response -> objectMapper.readTree(response.getBody()));
+            result.putAll(parseSimplePrice(priceNode, batch));
+        }
+
+        return result;
+    }
+
+    /**
+     * market_chart with daily interval; the response is parsed as it streams in,
+     * without buffering it or building a JSON tree
+     */
+    @Override
+    public PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException, InterruptedException {
+        String historyUrl = String.format("%s/coins/%s/market_chart?vs_currency=usd&days=%d&interval=daily",
+            COINGECKO_API_BASE, coinGeckoId, days);
+        System.out.println("[CoinGecko] Fetching history from: " + historyUrl);
+        try {
+            return executeConditional(historyUrl, MarketDataMetrics.ENDPOINT_HISTORY,
+                response -> MarketChartParser.parse(response.getBody(), objectMapper.getFactory()));
+        } catch (RestClientException e) {
+            // RestTemplate wraps extractor I/O errors; surface parse failures as such
+            if (e.getCause() instanceof IOException) {
+                throw new IOException("Unreadable history response for " + coinGeckoId + ": " + e.getCause().getMessage(), e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * market_chart/range; ranges over 90 days come back with daily points. Historical
+     * ranges never change, so they skip the conditional cache.
+     */
+    @Override
+    public PriceSeries fetchPriceHistoryRange(String coinGeckoId, long fromEpochSecond, long toEpochSecond)
+            throws IOException, InterruptedException {
+        String rangeUrl = String.format("%s/coins/%s/market_chart/range?vs_currency=usd&from=%d&to=%d",
+            COINGECKO_API_BASE, coinGeckoId, fromEpochSecond, toEpochSecond);
+        System.out.println("[CoinGecko] Fetching history range from: " + rangeUrl);
+        try {
+            return executeWithRateLimit(rangeUrl, MarketDataMetrics.ENDPOINT_RANGE,
+                request -> request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip"),
+                response -> MarketChartParser.parse(response.getBody(), objectMapper.getFactory()));
+        } catch (RestClientException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new IOException("Unreadable history range response for " + coinGeckoId + ": " + e.getCause().getMessage(), e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Map a /simple/price response to MarketData for the requested coins
+     */
+    static Map<String, MarketData> parseSimplePrice(JsonNode priceNode, List<String> coinGeckoIds) {
+        Map<String, MarketData> result = new LinkedHashMap<>();
+        for (String coinGeckoId : coinGeckoIds) {
+            JsonNode coinData = priceNode != null ? priceNode.get(coinGeckoId) : null;
+            if (coinData == null || !coinData.has("usd")) {
+                System.err.println("[CoinGecko] No data found for " + coinGeckoId + " in price response");
+                continue;
+            }
+
+            MarketData marketData = new MarketData(coinGeckoId, coinData.get("usd").asDouble());
+            if (coinData.has("usd_24h_change")) {
+                marketData.setPriceChangePercentage24h(coinData.get("usd_24h_change").asDouble());
+            }
+            if (coinData.has("usd_24h_vol")) {
+                marketData.setVolume24h(coinData.get("usd_24h_vol").asDouble());
+            }
+            if (coinData.has("usd_market_cap")) {
+                marketData.setMarketCap(coinData.get("usd_market_cap").asDouble());
+            }
+            result.put(coinGeckoId, marketData);
+        }
+        return result;
+    }
+
+    /**
+     * Conditional-request statistics for diagnostics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long conditional = conditionalRequests.get();
+        long notModified = notModifiedResponses.get();
+        stats.put("conditionalCacheEntries", conditionalCache.size());
+        stats.put("conditionalRequests", conditional);
+        stats.put("notModifiedResponses", notModified);
+        stats.put("notModifiedRatio", conditional > 0 ? (double) notModified / conditional : 0.0);
+        return stats;
+    }
+
+    /**
+     * GET with gzip and, when a previous response for the URL carried validators,
+     * If-None-Match/If-Modified-Since. A 304 returns the previously parsed result.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T executeConditional(String url, String endpoint, ResponseExtractor<T> bodyExtractor) throws InterruptedException {
+        ConditionalEntry cached = conditionalCache.get(url);
+        if (cached != null) {
+            conditionalRequests.incrementAndGet();
+        }
+
+        RequestCallback conditionalHeaders = request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            if (cached != null && cached.etag != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag);
+            }
+            if (cached != null && cached.lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        };
+
+        return executeWithRateLimit(url, endpoint, conditionalHeaders, response -> {
+            if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                if (cached == null) {
+                    throw new IOException("Unexpected 304 Not Modified without a cached response for " + url);
+                }
+                notModifiedResponses.incrementAndGet();
+                System.out.println("[CoinGecko] Not modified, reusing previous response for " + url);
+                return (T) cached.value;
+            }
+
+            T value = bodyExtractor.extractData(response);
+            String etag = response.getHeaders().getETag();
+            String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            if (etag != null || lastModified != null) {
+                conditionalCache.put(url, new ConditionalEntry(etag, lastModified, value));
+            } else {
+                conditionalCache.remove(url);
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Run a CoinGecko GET through the shared rate limiter, backing off and retrying on HTTP 429.
+     * The extractor reads the response body as a stream; the bytes it reads are recorded
+     * under the endpoint.
+     */
+    private <T> T executeWithRateLimit(String url, String endpoint, RequestCallback requestCallback, ResponseExtractor<T> extractor)
+            throws InterruptedException {
+        ResponseExtractor<T> countingExtractor = response -> {
+            CountingResponse counting = new CountingResponse(response);
+            try {
+                return extractor.extractData(counting);
+            } finally {
+                marketDataMetrics.recordDownload(endpoint, counting.bytesRead);
+            }
+        };
+
+        int attempt = 0;
+        while (true) {
+            rateLimiter.acquire();
+            try {
+                return restTemplate.execute(url, HttpMethod.GET, requestCallback, countingExtractor);
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS || attempt >= marketDataConfig.getMaxThrottleRetries()) {
+                    throw e;
+                }
+                attempt++;
+                String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Retry-After") : null;
+                rateLimiter.onThrottled(retryAfter);
+            }
+        }
+    }
+
+    // Counts the (already decompressed) body bytes read by an extractor
+    private static class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private long bytesRead;
+
+        CountingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        bytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytesRead += n;
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long skipped = super.skip(n);
+                    bytesRead += skipped;
+                    return skipped;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    // Validators from a 200 response and the result parsed from its body; never mutated after parsing
+    private static class ConditionalEntry {
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+
+        ConditionalEntry(String etag, String lastModified, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared token-bucket rate limiter for all outbound CoinGecko traffic.
+ *
+ * Tokens refill continuously at requests-per-minute up to the configured burst size.
+ * A caller that finds the bucket empty reserves the next token and sleeps only until it
+ * becomes available, so calls go out as fast as the quota allows and never faster.
+ * An HTTP 429 pauses the whole bucket until the server's Retry-After has passed.
+ */
+@Service
+public class CoinGeckoRateLimiter {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataMetrics marketDataMetrics;
+
+    private long nanosPerPermit;
+    private double maxTokens;
+
+    // Bucket state, guarded by this
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final AtomicLong permitsGranted = new AtomicLong();
+    private final AtomicLong delayedPermits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+
+    @PostConstruct
+    public void initialize() {
+        int requestsPerMinute = Math.max(1, marketDataConfig.getRequestsPerMinute());
+        this.nanosPerPermit = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.maxTokens = Math.max(1, marketDataConfig.getBurstSize());
+        this.tokens = maxTokens;
+        this.lastRefillNanos = System.nanoTime();
+
+        System.out.println("[RateLimiter] CoinGecko limiter initialized: " + requestsPerMinute +
+            " requests/minute, burst " + (int) maxTokens);
+    }
+
+    /**
+     * Block until a permit is available for one outbound request
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+
+            // A negative balance means earlier callers have already reserved the upcoming tokens
+            waitNanos = Math.max(0, lastRefillNanos - now);
+            if (tokens < 0) {
+                waitNanos += (long) (-tokens * nanosPerPermit);
+            }
+        }
+
+        permitsGranted.incrementAndGet();
+        marketDataMetrics.recordRateLimitWait(waitNanos);
+        if (waitNanos > 0) {
+            delayedPermits.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Record an HTTP 429 and pause the bucket until the Retry-After delay has passed
+     */
+    public void onThrottled(String retryAfterHeader) {
+        long retryAfterSeconds = parseRetryAfterSeconds(retryAfterHeader);
+        throttleCount.incrementAndGet();
+
+        synchronized (this) {
+            long resumeAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+            if (resumeAt > lastRefillNanos) {
+                // Allow a single request right after the pause, then refill at the normal rate
+                lastRefillNanos = resumeAt;
+                tokens = Math.min(tokens, 1);
+            }
+        }
+
+        System.err.println("[RateLimiter] CoinGecko returned HTTP 429 - pausing outbound calls for " +
+            retryAfterSeconds + "s");
+    }
+
+    /**
+     * Rate limiter statistics for diagnostics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long granted = permitsGranted.get();
+        stats.put("requestsPerMinute", marketDataConfig.getRequestsPerMinute());
+        stats.put("burstSize", (int) maxTokens);
+        stats.put("permitsGranted", granted);
+        stats.put("delayedPermits", delayedPermits.get());
+        stats.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+        stats.put("averageWaitMs", granted > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / granted) : 0);
+        stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        stats.put("throttles", throttleCount.get());
+        synchronized (this) {
+            refill(System.nanoTime());
+            stats.put("availableTokens", Math.max(0, tokens));
+        }
+        return stats;
+    }
+
+    private void refill(long now) {
+        if (now <= lastRefillNanos) {
+            return; // Paused after a 429, or nothing elapsed
+        }
+        tokens = Math.min(maxTokens, tokens + (double) (now - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Retry-After may carry delta-seconds or an HTTP date
+     */
+    private long parseRetryAfterSeconds(String retryAfterHeader) {
+        long fallback = marketDataConfig.getDefaultRetryAfterSeconds();
+        if (retryAfterHeader == null || retryAfterHeader.trim().isEmpty()) {
+            return fallback;
+        }
+        String value = retryAfterHeader.trim();
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, retryAt.toEpochSecond() - ZonedDateTime.now().toEpochSecond());
+            } catch (Exception ignored) {
+                return fallback;
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.CorrelationSummary;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.CorrelationEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pairwise correlation of the holdings' daily log returns over the configured windows,
+ * from the price history in the market snapshot. Closes are aligned by UTC day, with
+ * missing days carried forward. One CorrelationEngine is kept per window and brought
+ * up to date with the new days of each snapshot; it is rebuilt when the set of coins
+ * changes or any close still in its window differs from the one it was given.
+ */
+@Service
+public class CorrelationService {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final List<String> STABLECOINS = Arrays.asList("USDT", "USDC", "BUSD");
+    // Largest clusters reported; big portfolios also form many chance pairs over short windows
+    private static final int MAX_CLUSTERS = 10;
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    private ForkJoinPool correlationPool;
+
+    private final Map<Integer, WindowState> windows = new HashMap<>();
+    // Summaries of the last snapshot, shared by every report of an advisory run
+    private MarketSnapshot lastSnapshot;
+    private List<CorrelationSummary> lastSummaries;
+
+    private static class WindowState {
+        List<String> coinGeckoIds;
+        CorrelationEngine engine;
+        double[] matrix;
+        // Closes the engine was given for its last window + 1 days, per member, ring-indexed by day
+        double[][] closes;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        correlationPool = new ForkJoinPool(Math.max(1, marketDataConfig.getCorrelationParallelism()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        correlationPool.shutdownNow();
+    }
+
+    /**
+     * One summary per configured window, shortest first
+     */
+    public synchronized List<CorrelationSummary> analyze(List<Holding> holdings, MarketSnapshot snapshot) {
+        if (snapshot == lastSnapshot && lastSummaries != null) {
+            return lastSummaries;
+        }
+
+        List<String> coinGeckoIds = new ArrayList<>();
+        List<String> symbols = new ArrayList<>();
+        List<PriceSeries> seriesList = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Holding holding : holdings) {
+            String coinGeckoId = holding.getId();
+            if (coinGeckoId == null || STABLECOINS.contains(holding.getSymbol()) || !seen.add(coinGeckoId)
+                || !snapshot.contains(coinGeckoId)) {
+                continue;
+            }
+            PriceSeries series = snapshot.getMarketData(coinGeckoId).getPriceSeries();
+            if (series != null && !series.isEmpty()) {
+                coinGeckoIds.add(coinGeckoId);
+                symbols.add(holding.getSymbol());
+                seriesList.add(series);
+            }
+        }
+
+        List<Integer> windowDays = new ArrayList<>(new HashSet<>(marketDataConfig.getCorrelationWindows()));
+        windowDays.removeIf(days -> days == null || days < 2);
+        windowDays.sort(null);
+        List<CorrelationSummary> summaries = new ArrayList<>();
+        if (coinGeckoIds.isEmpty() || windowDays.isEmpty()) {
+            lastSnapshot = snapshot;
+            lastSummaries = summaries;
+            return summaries;
+        }
+
+        // Align every coin on the common last day, over the longest window
+        int maxWindow = windowDays.get(windowDays.size() - 1);
+        long endDay = Long.MAX_VALUE;
+        for (PriceSeries series : seriesList) {
+            endDay = Math.min(endDay, Math.floorDiv(series.lastTimestamp(), DAY_MILLIS));
+        }
+        long startDay = endDay - maxWindow;
+        double[][] aligned = new double[seriesList.size()][];
+        for (int i = 0; i < seriesList.size(); i++) {
+            aligned[i] = alignCloses(seriesList.get(i), startDay, maxWindow + 1);
+        }
+
+        for (int window : windowDays) {
+            List<Integer> members = new ArrayList<>();
+            List<String> excluded = new ArrayList<>();
+            for (int i = 0; i < aligned.length; i++) {
+                if (Double.isNaN(aligned[i][maxWindow - window])) {
+                    excluded.add(symbols.get(i));
+                } else {
+                    members.add(i);
+                }
+            }
+            CorrelationSummary summary = new CorrelationSummary(window);
+            summary.setAssetCount(members.size());
+            summary.setExcluded(excluded);
+            if (members.size() >= 2) {
+                WindowState state = update(window, members, coinGeckoIds, aligned, startDay, endDay);
+                summarize(summary, state, members, symbols);
+            }
+            summaries.add(summary);
+        }
+
+        lastSnapshot = snapshot;
+        lastSummaries = summaries;
+        return summaries;
+    }
+
+    /**
+     * Correlation section for the analysis prompts, or an empty string without data
+     */
+    public String getCorrelationSection(List<Holding> holdings, MarketSnapshot snapshot) {
+        StringBuilder section = new StringBuilder();
+        for (CorrelationSummary summary : analyze(holdings, snapshot)) {
+            if (summary.getAverageCorrelation() == null) {
+                continue;
+            }
+            section.append(String.format("%d-day window (%d holdings, average pairwise correlation %.2f):\n",
+                summary.getWindowDays(), summary.getAssetCount(), summary.getAverageCorrelation()));
+            if (!summary.getTopPairs().isEmpty()) {
+                section.append("- Most correlated: ");
+                for (int i = 0; i < summary.getTopPairs().size(); i++) {
+                    CorrelationSummary.CorrelatedPair pair = summary.getTopPairs().get(i);
+                    section.append(i > 0 ? ", " : "").append(pair.getFirst()).append("/").append(pair.getSecond())
+                        .append(String.format(" %.2f", pair.getCorrelation()));
+                }
+                section.append("\n");
+            }
+            if (!summary.getClusters().isEmpty()) {
+                section.append(String.format("- Clusters moving together (average correlation >= %.2f): ",
+                    marketDataConfig.getCorrelationClusterThreshold()));
+                for (int i = 0; i < summary.getClusters().size(); i++) {
+                    section.append(i > 0 ? ", " : "").append(summary.getClusters().get(i));
+                }
+                section.append("\n");
+            }
+            if (!summary.getExcluded().isEmpty()) {
+                section.append("- Not enough history: ").append(String.join(", ", summary.getExcluded())).append("\n");
+            }
+        }
+        if (section.length() == 0) {
+            return "";
+        }
+        return "--- Return Correlations (daily log returns, measured from price history) ---\n" + section + "\n";
+    }
+
+    /**
+     * Closes for count consecutive days from startDay, each the last close on or before
+     * that day; NaN before the series' first day
+     */
+    private static double[] alignCloses(PriceSeries series, long startDay, int count) {
+        double[] closes = new double[count];
+        int index = series.size() - 1;
+        while (index >= 0 && Math.floorDiv(series.timestampAt(index), DAY_MILLIS) > startDay) {
+            index--;
+        }
+        double close = Double.NaN;
+        for (int i = index; i >= 0; i--) {
+            if (series.closeAt(i) > 0) {
+                close = series.closeAt(i);
+                break;
+            }
+        }
+        index++;
+        for (int offset = 0; offset < count; offset++) {
+            long day = startDay + offset;
+            while (index < series.size() && Math.floorDiv(series.timestampAt(index), DAY_MILLIS) <= day) {
+                if (series.closeAt(index) > 0) {
+                    close = series.closeAt(index);
+                }
+                index++;
+            }
+            closes[offset] = close;
+        }
+        return closes;
+    }
+
+    /**
+     * Bring the window's engine up to endDay: append the new days and replace a changed
+     * last day, or rebuild when the coins changed, the engine is too far behind, or any
+     * earlier close still in the window differs from the one the engine was given
+     */
+    private WindowState update(int window, List<Integer> members, List<String> coinGeckoIds, double[][] aligned,
+                               long startDay, long endDay) {
+        List<String> memberIds = new ArrayList<>(members.size());
+        for (int member : members) {
+            memberIds.add(coinGeckoIds.get(member));
+        }
+        double[] closes = new double[members.size()];
+
+        WindowState state = windows.get(window);
+        if (state != null && state.coinGeckoIds.equals(memberIds) && state.engine.getLastDay() <= endDay
+                && state.engine.getLastDay() >= endDay - window
+                && closesMatch(state, members, aligned, startDay, endDay - window, state.engine.getLastDay() - 1)) {
+            CorrelationEngine engine = state.engine;
+            long lastDay = engine.getLastDay();
+            fillCloses(closes, members, aligned, (int) (lastDay - startDay));
+            for (int i = 0; i < closes.length; i++) {
+                if (closes[i] != engine.lastCloseAt(i)) {
+                    engine.replaceLast(lastDay, closes);
+                    recordCloses(state, lastDay, closes);
+                    break;
+                }
+            }
+            for (long day = lastDay + 1; day <= endDay; day++) {
+                fillCloses(closes, members, aligned, (int) (day - startDay));
+                engine.append(day, closes);
+                recordCloses(state, day, closes);
+            }
+            return state;
+        }
+
+        long start = System.currentTimeMillis();
+        state = new WindowState();
+        state.coinGeckoIds = memberIds;
+        state.engine = new CorrelationEngine(members.size(), window, correlationPool);
+        state.matrix = new double[members.size() * members.size()];
+        state.closes = new double[members.size()][window + 1];
+        for (long day = endDay - window; day <= endDay; day++) {
+            fillCloses(closes, members, aligned, (int) (day - startDay));
+            state.engine.append(day, closes);
+            recordCloses(state, day, closes);
+        }
+        windows.put(window, state);
+        System.out.println("[Correlation] Built " + window + "-day matrix for " + members.size() + " coins in " +
+            (System.currentTimeMillis() - start) + "ms");
+        return state;
+    }
+
+    /**
+     * Whether the engine was given the same closes as the aligned history for fromDay..toDay;
+     * a refetched series or a filled gap changes earlier days that the engine cannot replace
+     */
+    private static boolean closesMatch(WindowState state, List<Integer> members, double[][] aligned, long startDay,
+                                       long fromDay, long toDay) {
+        int ringSize = state.closes[0].length;
+        for (long day = fromDay; day <= toDay; day++) {
+            int slot = (int) Math.floorMod(day, (long) ringSize);
+            int offset = (int) (day - startDay);
+            for (int i = 0; i < members.size(); i++) {
+                if (state.closes[i][slot] != aligned[members.get(i)][offset]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void recordCloses(WindowState state, long day, double[] closes) {
+        int slot = (int) Math.floorMod(day, (long) state.closes[0].length);
+        for (int i = 0; i < closes.length; i++) {
+            state.closes[i][slot] = closes[i];
+        }
+    }
+
+    private static void fillCloses(double[] closes, List<Integer> members, double[][] aligned, int offset) {
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = aligned[members.get(i)][offset];
+        }
+    }
+
+    private void summarize(CorrelationSummary summary, WindowState state, List<Integer> members, List<String> symbols) {
+        int n = members.size();
+        double[] matrix = state.engine.correlationMatrix(state.matrix);
+
+        double total = 0;
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (!Double.isNaN(matrix[i * n + j])) {
+                    total += matrix[i * n + j];
+                    pairs++;
+                }
+            }
+        }
+        summary.setAverageCorrelation(pairs > 0 ? total / pairs : null);
+
+        int k = Math.max(0, marketDataConfig.getCorrelationTopPairs());
+        int[] firsts = new int[k];
+        int[] seconds = new int[k];
+        double[] values = new double[k];
+        int found = k > 0 ? CorrelationEngine.topPairs(matrix, n, k, firsts, seconds, values) : 0;
+        for (int i = 0; i < found; i++) {
+            summary.getTopPairs().add(new CorrelationSummary.CorrelatedPair(symbols.get(members.get(firsts[i])),
+                symbols.get(members.get(seconds[i])), values[i]));
+        }
+
+        int[] labels = CorrelationEngine.clusters(matrix, n, marketDataConfig.getCorrelationClusterThreshold());
+        List<List<String>> clusters = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (labels[i] < 0) {
+                continue;
+            }
+            while (clusters.size() <= labels[i]) {
+                clusters.add(new ArrayList<>());
+            }
+            clusters.get(labels[i]).add(symbols.get(members.get(i)));
+        }
+        clusters.sort((first, second) -> Integer.compare(second.size(), first.size()));
+        summary.setClusters(new ArrayList<>(clusters.subList(0, Math.min(MAX_CLUSTERS, clusters.size()))));
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -35,9 +36,6 @@ public class EntryExitStrategyAnalysisService {
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
-    @Autowired
-    private DataProviderService dataProviderService;
-
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -47,7 +45,7 @@ public class EntryExitStrategyAnalysisService {
      * their target prices and market trends to provide specific buy/sell recommendations
      * with exact price levels for immediate action TODAY.
      */
-    public String buildEntryExitStrategyPrompt(List<Holding> holdings) {
+    public String buildEntryExitStrategyPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("=== DAILY CRYPTO TRADING RECOMMENDATIONS ===\n");
         prompt.append("⚠️ CRITICAL: KEEP TOTAL RESPONSE UNDER 3000 WORDS. BE CONCISE AND ACTIONABLE.\n");
@@ -80,7 +78,7 @@ public class EntryExitStrategyAnalysisService {
 
             // Fetch and include current market data for comparison
             try {
-                MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                MarketData marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     double currentPrice = marketData.getCurrentPrice();
                     prompt.append(String.format("Current Price: $%.2f\n", currentPrice));
@@ -0,0 +1,441 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Composite provider (market-data.provider=hedged) over the providers listed in
+ * market-data.hedge-providers. Each call goes to the first configured live provider (the
+ * primary); if it has not answered within its own latency percentile, the same call is
+ * hedged to the next live provider, and a provider that fails or returns implausible data
+ * fails over to the next one immediately. The first sane answer wins and the calls still
+ * running are cancelled. Answers that arrive anyway are cross-checked against it, and a
+ * disagreement counts as an error of the winning provider.
+ *
+ * Latency and error rate are tracked per provider over a sliding window. The secondary
+ * live providers are ordered by median latency, and live providers above
+ * market-data.hedge-max-error-rate are tried after the healthy ones. Fixture providers
+ * (not live) are never hedged to; they are tried, in configured order, only once every
+ * live provider has failed.
+ */
+@Service
+public class HedgedMarketDataProvider implements MarketDataProvider {
+
+    private static final int STATS_WINDOW = 100;
+    private static final int MIN_SAMPLES = 10;
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private List<MarketDataProvider> marketDataProviders;
+
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "market-data-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, ProviderStats> providerStats = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedgedCalls = new AtomicLong();
+    private final AtomicLong fallbackWins = new AtomicLong();
+    private final AtomicLong sanityRejections = new AtomicLong();
+    private final AtomicLong disagreements = new AtomicLong();
+
+    @FunctionalInterface
+    private interface ProviderCall<T> {
+        T call(MarketDataProvider provider) throws IOException, InterruptedException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return "hedged";
+    }
+
+    @Override
+    public Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException {
+        return execute(provider -> provider.fetchSpotPrices(coinGeckoIds),
+            result -> isSaneSpot(result, coinGeckoIds), this::spotAgrees);
+    }
+
+    @Override
+    public PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException, InterruptedException {
+        return execute(provider -> provider.fetchPriceHistory(coinGeckoId, days), this::isSaneHistory, null);
+    }
+
+    @Override
+    public PriceSeries fetchPriceHistoryRange(String coinGeckoId, long fromEpochSecond, long toEpochSecond)
+            throws IOException, InterruptedException {
+        // A range before the coin was listed is legitimately empty
+        return execute(provider -> provider.fetchPriceHistoryRange(coinGeckoId, fromEpochSecond, toEpochSecond),
+            series -> series != null && (series.isEmpty() || isSaneHistory(series)), null);
+    }
+
+    private <T> T execute(ProviderCall<T> call, Predicate<T> sanityCheck, BiPredicate<T, T> agreement)
+            throws IOException, InterruptedException {
+        List<MarketDataProvider> ranked = rankProviders();
+        if (ranked.isEmpty()) {
+            throw new IOException("No providers configured in market-data.hedge-providers");
+        }
+        calls.incrementAndGet();
+
+        HedgeState<T> state = new HedgeState<>(agreement);
+        List<Throwable> errors = new ArrayList<>();
+        int launched = 0;
+        int finished = 0;
+        try {
+            launch(ranked.get(launched++), call, sanityCheck, state);
+
+            while (true) {
+                Attempt<T> attempt;
+                if (launched < ranked.size() && ranked.get(launched).isLive()) {
+                    attempt = state.outcomes.poll(getHedgeDelayMs(ranked.get(launched - 1)), TimeUnit.MILLISECONDS);
+                    if (attempt == null) {
+                        // Slower than usual - hedge to the next live provider and keep waiting on both
+                        if (launched == 1) {
+                            hedgedCalls.incrementAndGet();
+                        }
+                        launch(ranked.get(launched++), call, sanityCheck, state);
+                        continue;
+                    }
+                } else {
+                    attempt = state.outcomes.take();
+                }
+
+                finished++;
+                if (attempt.error == null) {
+                    if (attempt.provider != ranked.get(0)) {
+                        fallbackWins.incrementAndGet();
+                    }
+                    state.complete(attempt);
+                    return attempt.value;
+                }
+
+                errors.add(attempt.error);
+                // Fail over to the next live provider at once; a fixture only once nothing else is pending
+                boolean nextIsLive = launched < ranked.size() && ranked.get(launched).isLive();
+                if (nextIsLive || (finished == launched && launched < ranked.size())) {
+                    launch(ranked.get(launched++), call, sanityCheck, state);
+                } else if (finished == launched) {
+                    IOException failure = new IOException("All market data providers failed: " + attempt.error.getMessage(), attempt.error);
+                    errors.subList(0, errors.size() - 1).forEach(failure::addSuppressed);
+                    throw failure;
+                }
+            }
+        } finally {
+            // Losing calls would otherwise keep spending rate-limiter tokens and retries
+            state.cancelPending();
+        }
+    }
+
+    private <T> void launch(MarketDataProvider provider, ProviderCall<T> call, Predicate<T> sanityCheck, HedgeState<T> state) {
+        ProviderStats stats = statsFor(provider);
+        state.track(hedgeExecutor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                T value = call.call(provider);
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (!sanityCheck.test(value)) {
+                    sanityRejections.incrementAndGet();
+                    stats.record(latencyMs, false);
+                    state.offer(new Attempt<>(provider, null,
+                        new IOException("Implausible data from provider " + provider.getName())));
+                    return;
+                }
+                stats.record(latencyMs, true);
+                state.offer(new Attempt<>(provider, value, null));
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (state.isDecided()) {
+                    // Cancelled after another provider won: it was at least this slow, but did not fail
+                    stats.recordLatency(latencyMs);
+                    return;
+                }
+                stats.record(latencyMs, false);
+                state.offer(new Attempt<>(provider, null, e));
+            }
+        }));
+    }
+
+    /**
+     * Configured providers in call order: the primary (first configured live provider), the
+     * other live providers fastest first by median latency, then fixture providers in
+     * configured order. Unhealthy live providers move behind the healthy ones; providers
+     * without enough samples keep their configured order after the measured ones.
+     */
+    private List<MarketDataProvider> rankProviders() {
+        List<MarketDataProvider> configured = new ArrayList<>();
+        for (String name : marketDataConfig.getHedgeProviders()) {
+            for (MarketDataProvider candidate : marketDataProviders) {
+                if (candidate != this && candidate.getName().equalsIgnoreCase(name.trim()) && !configured.contains(candidate)) {
+                    configured.add(candidate);
+                }
+            }
+        }
+        MarketDataProvider primary = configured.stream().filter(MarketDataProvider::isLive).findFirst().orElse(null);
+
+        List<MarketDataProvider> ranked = new ArrayList<>(configured);
+        ranked.sort(Comparator
+            .comparing((MarketDataProvider p) -> !p.isLive())
+            .thenComparing(p -> !statsFor(p).isHealthy(marketDataConfig.getHedgeMaxErrorRate()))
+            .thenComparing(p -> p != primary)
+            .thenComparingLong(p -> p.isLive() && statsFor(p).hasEnoughSamples() ? statsFor(p).percentile(0.5) : Long.MAX_VALUE)
+            .thenComparingInt(configured::indexOf));
+        return ranked;
+    }
+
+    /**
+     * How long to wait on a provider before hedging: its latency percentile, clamped
+     */
+    private long getHedgeDelayMs(MarketDataProvider provider) {
+        ProviderStats stats = statsFor(provider);
+        long delay = stats.hasEnoughSamples()
+            ? stats.percentile(marketDataConfig.getHedgeLatencyPercentile())
+            : marketDataConfig.getHedgeDefaultDelayMs();
+        return Math.max(marketDataConfig.getHedgeMinDelayMs(), Math.min(marketDataConfig.getHedgeMaxDelayMs(), delay));
+    }
+
+    /**
+     * Every requested coin must be present, so a partial answer cannot beat a complete one
+     */
+    private boolean isSaneSpot(Map<String, MarketData> result, List<String> coinGeckoIds) {
+        if (result == null || !result.keySet().containsAll(coinGeckoIds)) {
+            return false;
+        }
+        for (MarketData data : result.values()) {
+            if (data == null || !(data.getCurrentPrice() > 0) || Double.isInfinite(data.getCurrentPrice())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSaneHistory(PriceSeries series) {
+        if (series == null || series.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < series.size(); i++) {
+            double close = series.closeAt(i);
+            if (!(close > 0) || Double.isInfinite(close) || (i > 0 && series.timestampAt(i) < series.timestampAt(i - 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean spotAgrees(Map<String, MarketData> winner, Map<String, MarketData> late) {
+        boolean agrees = true;
+        for (Map.Entry<String, MarketData> entry : late.entrySet()) {
+            MarketData chosen = winner.get(entry.getKey());
+            if (chosen == null) {
+                continue;
+            }
+            double a = chosen.getCurrentPrice();
+            double b = entry.getValue().getCurrentPrice();
+            double deviation = Math.abs(a - b) / Math.max(a, b);
+            if (deviation > marketDataConfig.getHedgeMaxPriceDeviation()) {
+                agrees = false;
+                System.err.println("[HedgedProvider] Providers disagree on " + entry.getKey() + ": " + a + " vs " + b +
+                    String.format(" (%.1f%%)", deviation * 100));
+            }
+        }
+        return agrees;
+    }
+
+    private ProviderStats statsFor(MarketDataProvider provider) {
+        return providerStats.computeIfAbsent(provider.getName(), name -> new ProviderStats());
+    }
+
+    /**
+     * Hedging counters and per-provider latency/error statistics for diagnostics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.get());
+        stats.put("hedgedCalls", hedgedCalls.get());
+        stats.put("fallbackWins", fallbackWins.get());
+        stats.put("sanityRejections", sanityRejections.get());
+        stats.put("disagreements", disagreements.get());
+
+        List<Map<String, Object>> providers = new ArrayList<>();
+        for (MarketDataProvider provider : rankProviders()) {
+            ProviderStats providerStat = statsFor(provider);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", provider.getName());
+            row.put("samples", providerStat.sampleCount());
+            row.put("errorRate", Math.round(providerStat.errorRate() * 1000) / 1000.0);
+            row.put("p50LatencyMs", providerStat.percentile(0.5));
+            row.put("p95LatencyMs", providerStat.percentile(0.95));
+            row.put("hedgeDelayMs", getHedgeDelayMs(provider));
+            row.put("healthy", providerStat.isHealthy(marketDataConfig.getHedgeMaxErrorRate()));
+            providers.add(row);
+        }
+        stats.put("providers", providers);
+        return stats;
+    }
+
+    // Outcomes are queued for the caller until a winner is chosen; later answers are cross-checked
+    private class HedgeState<T> {
+        private final BlockingQueue<Attempt<T>> outcomes = new LinkedBlockingQueue<>();
+        private final List<Future<?>> calls = new ArrayList<>();
+        private final BiPredicate<T, T> agreement;
+        private Attempt<T> winner;
+        private boolean decided;
+
+        HedgeState(BiPredicate<T, T> agreement) {
+            this.agreement = agreement;
+        }
+
+        synchronized void track(Future<?> call) {
+            if (decided) {
+                call.cancel(true);
+            } else {
+                calls.add(call);
+            }
+        }
+
+        synchronized boolean isDecided() {
+            return decided;
+        }
+
+        synchronized void offer(Attempt<T> attempt) {
+            if (!decided) {
+                outcomes.add(attempt);
+            } else if (winner != null && attempt.error == null) {
+                crossCheck(attempt);
+            }
+        }
+
+        synchronized void complete(Attempt<T> attempt) {
+            winner = attempt;
+            decided = true;
+            for (Attempt<T> queued : outcomes) {
+                if (queued.error == null) {
+                    crossCheck(queued);
+                }
+            }
+            outcomes.clear();
+        }
+
+        synchronized void cancelPending() {
+            decided = true;
+            for (Future<?> call : calls) {
+                call.cancel(true);
+            }
+            calls.clear();
+        }
+
+        private void crossCheck(Attempt<T> late) {
+            if (agreement != null && !agreement.test(winner.value, late.value)) {
+                // The winning answer has already been returned; count it against its provider
+                disagreements.incrementAndGet();
+                statsFor(winner.provider).recordOutcome(false);
+            }
+        }
+    }
+
+    private static class Attempt<T> {
+        private final MarketDataProvider provider;
+        private final T value;
+        private final Exception error;
+
+        Attempt(MarketDataProvider provider, T value, Exception error) {
+            this.provider = provider;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    // Sliding windows of the last STATS_WINDOW latencies and call outcomes
+    private static class ProviderStats {
+        private final long[] latencies = new long[STATS_WINDOW];
+        private final boolean[] failures = new boolean[STATS_WINDOW];
+        private int nextLatency;
+        private int latencyCount;
+        private int next;
+        private int count;
+
+        synchronized void record(long latencyMs, boolean success) {
+            recordLatency(latencyMs);
+            recordOutcome(success);
+        }
+
+        synchronized void recordLatency(long latencyMs) {
+            latencies[nextLatency] = latencyMs;
+            nextLatency = (nextLatency + 1) % STATS_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, STATS_WINDOW);
+        }
+
+        synchronized void recordOutcome(boolean success) {
+            failures[next] = !success;
+            next = (next + 1) % STATS_WINDOW;
+            count = Math.min(count + 1, STATS_WINDOW);
+        }
+
+        synchronized int sampleCount() {
+            return count;
+        }
+
+        synchronized boolean hasEnoughSamples() {
+            return latencyCount >= MIN_SAMPLES;
+        }
+
+        synchronized double errorRate() {
+            if (count == 0) {
+                return 0;
+            }
+            int failed = 0;
+            for (int i = 0; i < count; i++) {
+                if (failures[i]) {
+                    failed++;
+                }
+            }
+            return (double) failed / count;
+        }
+
+        synchronized boolean isHealthy(double maxErrorRate) {
+            return count < MIN_SAMPLES || errorRate() <= maxErrorRate;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (latencyCount == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * latencyCount) - 1;
+            return sorted[Math.max(0, Math.min(latencyCount - 1, index))];
+        }
+    }
+}
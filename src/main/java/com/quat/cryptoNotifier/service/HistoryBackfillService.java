@@ -0,0 +1,342 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.Holdings;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.PriceHistoryFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-year daily history backfill for every holding, written to one PriceHistoryFile
+ * per coin under market-data.backfill-dir. Each coin is downloaded oldest first in
+ * chunked range queries, several coins at a time; the provider's rate limiter keeps the
+ * parallel downloads within the API budget. After every chunk the new days are forced
+ * to disk and the coin's checkpoint is saved, so an interrupted backfill picks up at the
+ * next chunk when started again.
+ */
+@Service
+public class HistoryBackfillService {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private static final String CHECKPOINT_FILE = "backfill-checkpoint.json";
+    private static final String HISTORY_SUFFIX = ".phs";
+    private static final long DAY_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    // Ranges over 90 days come back at daily granularity
+    private static final long MIN_QUERY_SECONDS = 91 * DAY_SECONDS;
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataCacheService marketDataCacheService;
+
+    @Autowired
+    private MarketDataMetrics marketDataMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+    // Archives already read, by coin, with the file's modification time and size when read
+    private final Map<String, ArchivedHistory> archives = new ConcurrentHashMap<>();
+    private volatile State state = State.IDLE;
+    private volatile int requestedYears;
+    private volatile int totalCoins;
+    private final AtomicInteger completedCoins = new AtomicInteger();
+    private final AtomicInteger failedCoins = new AtomicInteger();
+    private final AtomicInteger chunksDownloaded = new AtomicInteger();
+    private final AtomicLong pointsWritten = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    // Progress of one coin's backfill
+    public static class Checkpoint {
+        private long fromEpochSecond;
+        private long completedThroughEpochSecond;
+        private boolean complete;
+
+        public long getFromEpochSecond() {
+            return fromEpochSecond;
+        }
+
+        public void setFromEpochSecond(long fromEpochSecond) {
+            this.fromEpochSecond = fromEpochSecond;
+        }
+
+        public long getCompletedThroughEpochSecond() {
+            return completedThroughEpochSecond;
+        }
+
+        public void setCompletedThroughEpochSecond(long completedThroughEpochSecond) {
+            this.completedThroughEpochSecond = completedThroughEpochSecond;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public void setComplete(boolean complete) {
+            this.complete = complete;
+        }
+    }
+
+    private static class ArchivedHistory {
+        final long modifiedMillis;
+        final long fileSize;
+        final PriceSeries series;
+
+        ArchivedHistory(long modifiedMillis, long fileSize, PriceSeries series) {
+            this.modifiedMillis = modifiedMillis;
+            this.fileSize = fileSize;
+            this.series = series;
+        }
+    }
+
+    /**
+     * Start a backfill of the given number of years (market-data.backfill-default-years
+     * when not positive) in the background. With rebuild, existing files and checkpoints
+     * are discarded first; otherwise every coin resumes from its checkpoint.
+     */
+    public synchronized Map<String, Object> startBackfill(int years, boolean rebuild) {
+        if (state == State.RUNNING) {
+            return getStatus();
+        }
+        if (years <= 0) {
+            years = marketDataConfig.getBackfillDefaultYears();
+        }
+        final int backfillYears = years;
+        state = State.RUNNING;
+        requestedYears = backfillYears;
+        completedCoins.set(0);
+        failedCoins.set(0);
+        chunksDownloaded.set(0);
+        pointsWritten.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+
+        Thread backfillThread = new Thread(() -> runBackfill(backfillYears, rebuild), "history-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+        return getStatus();
+    }
+
+    private void runBackfill(int years, boolean rebuild) {
+        ExecutorService downloadPool = null;
+        try {
+            Path backfillDir = Paths.get(marketDataConfig.getBackfillDir());
+            Files.createDirectories(backfillDir);
+            loadCheckpoints(backfillDir);
+
+            List<String> coinGeckoIds = new ArrayList<>();
+            for (Holding holding : loadHoldings()) {
+                String coinGeckoId = holding.getId();
+                if (coinGeckoId != null && !coinGeckoId.isEmpty() && !coinGeckoIds.contains(coinGeckoId)) {
+                    coinGeckoIds.add(coinGeckoId);
+                }
+            }
+            totalCoins = coinGeckoIds.size();
+
+            // Only completed UTC days are archived
+            long toEpochSecond = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            long fromEpochSecond = toEpochSecond - years * 365L * DAY_SECONDS;
+            System.out.println("[HistoryBackfill] Backfilling " + years + " years for " + totalCoins +
+                " coins with parallelism " + marketDataConfig.getBackfillParallelism());
+
+            downloadPool = Executors.newFixedThreadPool(Math.max(1, marketDataConfig.getBackfillParallelism()), runnable -> {
+                Thread thread = new Thread(runnable, "history-backfill-download");
+                thread.setDaemon(true);
+                return thread;
+            });
+            List<Future<?>> downloads = new ArrayList<>();
+            for (String coinGeckoId : coinGeckoIds) {
+                downloads.add(downloadPool.submit(() -> {
+                    try {
+                        backfillCoin(backfillDir, coinGeckoId, fromEpochSecond, toEpochSecond, rebuild);
+                    } catch (Exception e) {
+                        failedCoins.incrementAndGet();
+                        lastError = coinGeckoId + ": " + e.getMessage();
+                        System.err.println("[HistoryBackfill] Backfill failed for " + coinGeckoId + ", will resume from checkpoint: " + e.getMessage());
+                    } finally {
+                        completedCoins.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> download : downloads) {
+                download.get();
+            }
+
+            state = failedCoins.get() == 0 ? State.COMPLETED : State.FAILED;
+            System.out.println("[HistoryBackfill] Backfill finished: " + (totalCoins - failedCoins.get()) + "/" + totalCoins +
+                " coins, " + chunksDownloaded.get() + " chunks, " + pointsWritten.get() + " new daily points");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            state = State.FAILED;
+            System.err.println("[HistoryBackfill] Backfill failed: " + e.getMessage());
+        } finally {
+            if (downloadPool != null) {
+                downloadPool.shutdownNow();
+            }
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void backfillCoin(Path backfillDir, String coinGeckoId, long fromEpochSecond, long toEpochSecond, boolean rebuild)
+            throws IOException, InterruptedException {
+        Path historyPath = historyPath(backfillDir, coinGeckoId);
+        if (rebuild) {
+            Files.deleteIfExists(historyPath);
+            checkpoints.remove(coinGeckoId);
+        }
+
+        try (PriceHistoryFile history = PriceHistoryFile.open(historyPath)) {
+            Checkpoint checkpoint = checkpoints.get(coinGeckoId);
+            long resumeFrom = fromEpochSecond;
+            if (checkpoint != null && (checkpoint.getFromEpochSecond() <= fromEpochSecond || history.size() > 0)) {
+                if (checkpoint.getFromEpochSecond() > fromEpochSecond) {
+                    System.out.println("[HistoryBackfill] " + coinGeckoId + " archive starts after the requested range;" +
+                        " use rebuild to extend it backwards");
+                }
+                resumeFrom = Math.max(fromEpochSecond, checkpoint.getCompletedThroughEpochSecond());
+            } else {
+                checkpoint = new Checkpoint();
+                checkpoint.setFromEpochSecond(fromEpochSecond);
+            }
+            if (history.size() > 0) {
+                resumeFrom = Math.max(resumeFrom, history.lastTimestamp() / 1000 + 1);
+            }
+
+            long chunkSeconds = Math.max(MIN_QUERY_SECONDS, marketDataConfig.getBackfillChunkDays() * DAY_SECONDS);
+            for (long chunkStart = resumeFrom; chunkStart < toEpochSecond; chunkStart += chunkSeconds) {
+                long chunkEnd = Math.min(chunkStart + chunkSeconds, toEpochSecond);
+                // Keep the last, shorter chunk at daily granularity; already archived days are skipped
+                long queryFrom = Math.min(chunkStart, chunkEnd - MIN_QUERY_SECONDS);
+                PriceSeries chunk = marketDataMetrics.timeFetch(MarketDataMetrics.ENDPOINT_RANGE,
+                    () -> marketDataCacheService.getProvider().fetchPriceHistoryRange(coinGeckoId, queryFrom, chunkEnd));
+                pointsWritten.addAndGet(history.appendDaily(chunk, toEpochSecond * 1000));
+                chunksDownloaded.incrementAndGet();
+
+                checkpoint.setCompletedThroughEpochSecond(chunkEnd);
+                checkpoints.put(coinGeckoId, checkpoint);
+                saveCheckpoints(backfillDir);
+            }
+
+            checkpoint.setCompletedThroughEpochSecond(Math.max(checkpoint.getCompletedThroughEpochSecond(), toEpochSecond));
+            checkpoint.setComplete(true);
+            checkpoints.put(coinGeckoId, checkpoint);
+            saveCheckpoints(backfillDir);
+            System.out.println("[HistoryBackfill] " + coinGeckoId + " archived: " + history.size() + " daily points");
+        }
+    }
+
+    /**
+     * Archived daily history for a coin, memory-mapped from its backfill file, or null
+     * when the coin has not been backfilled. The file is only read again after it changes,
+     * so the returned series is shared and must not be modified.
+     */
+    public PriceSeries loadArchivedHistory(String coinGeckoId) {
+        Path historyPath = historyPath(Paths.get(marketDataConfig.getBackfillDir()), coinGeckoId);
+        if (!PriceHistoryFile.exists(historyPath)) {
+            archives.remove(coinGeckoId);
+            return null;
+        }
+        try {
+            long modifiedMillis = Files.getLastModifiedTime(historyPath).toMillis();
+            long fileSize = Files.size(historyPath);
+            ArchivedHistory cached = archives.get(coinGeckoId);
+            if (cached != null && cached.modifiedMillis == modifiedMillis && cached.fileSize == fileSize) {
+                return cached.series;
+            }
+            PriceSeries series = PriceHistoryFile.readSeries(historyPath);
+            archives.put(coinGeckoId, new ArchivedHistory(modifiedMillis, fileSize, series));
+            return series;
+        } catch (IOException e) {
+            System.err.println("[HistoryBackfill] Could not read archived history for " + coinGeckoId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("requestedYears", requestedYears);
+        status.put("totalCoins", totalCoins);
+        status.put("completedCoins", completedCoins.get());
+        status.put("failedCoins", failedCoins.get());
+        status.put("chunksDownloaded", chunksDownloaded.get());
+        status.put("pointsWritten", pointsWritten.get());
+        if (startedAt != null) {
+            status.put("startedAt", startedAt.toString());
+        }
+        if (finishedAt != null) {
+            status.put("finishedAt", finishedAt.toString());
+        }
+        if (lastError != null) {
+            status.put("error", lastError);
+        }
+        return status;
+    }
+
+    private Path historyPath(Path backfillDir, String coinGeckoId) {
+        return backfillDir.resolve(coinGeckoId + HISTORY_SUFFIX);
+    }
+
+    private void loadCheckpoints(Path backfillDir) {
+        Path checkpointPath = backfillDir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpointPath)) {
+            return;
+        }
+        try {
+            Map<String, Checkpoint> saved = objectMapper.readValue(checkpointPath.toFile(),
+                new TypeReference<Map<String, Checkpoint>>() {});
+            checkpoints.putAll(saved);
+        } catch (IOException e) {
+            System.err.println("[HistoryBackfill] Ignoring unreadable checkpoint file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write all checkpoints to a temp file and move it into place
+     */
+    private synchronized void saveCheckpoints(Path backfillDir) throws IOException {
+        Path tempPath = backfillDir.resolve(CHECKPOINT_FILE + ".tmp");
+        objectMapper.writeValue(tempPath.toFile(), new LinkedHashMap<>(checkpoints));
+        Files.move(tempPath, backfillDir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Holding> loadHoldings() {
+        try {
+            ClassPathResource resource = new ClassPathResource("holdings.json");
+            Holdings holdings = objectMapper.readValue(resource.getInputStream(), Holdings.class);
+            return holdings.getCryptos();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load holdings from holdings.json", e);
+        }
+    }
+}
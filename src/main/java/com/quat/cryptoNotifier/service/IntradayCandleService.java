@@ -0,0 +1,265 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.CandleRingBuffer;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.Holdings;
+import com.quat.cryptoNotifier.model.MarketData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in intraday mode (market-data.intraday-enabled). Polls batched spot prices for all
+ * holdings on a fixed interval and aggregates the ticks into 5m, 1h and 4h candles, kept
+ * per coin in fixed-size ring buffers. The buffers are spilled to disk periodically and
+ * on shutdown, and reloaded on startup, so a restart does not lose the intraday history.
+ * Each poll costs one spot request per 50 coins and no history calls.
+ */
+@Service
+public class IntradayCandleService {
+
+    public enum Timeframe {
+        M5("5m", 5), H1("1h", 60), H4("4h", 240);
+
+        private final String label;
+        private final long intervalMs;
+
+        Timeframe(String label, int minutes) {
+            this.label = label;
+            this.intervalMs = TimeUnit.MINUTES.toMillis(minutes);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public static Timeframe fromLabel(String label) {
+            for (Timeframe timeframe : values()) {
+                if (timeframe.label.equalsIgnoreCase(label)) {
+                    return timeframe;
+                }
+            }
+            throw new IllegalArgumentException("Unknown timeframe '" + label + "', expected 5m, 1h or 4h");
+        }
+    }
+
+    private static final String SPILL_FILE = "candles.bin";
+    private static final int SPILL_FORMAT_VERSION = 1;
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataCacheService marketDataCacheService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, EnumMap<Timeframe, CandleRingBuffer>> candles = new ConcurrentHashMap<>();
+    private volatile long lastSpillMillis = System.currentTimeMillis();
+    private volatile long lastPollMillis;
+    private volatile long pollCount;
+    private volatile long failedPolls;
+
+    @PostConstruct
+    public void loadSpill() {
+        if (!marketDataConfig.isIntradayEnabled()) {
+            return;
+        }
+        Path spillFile = Paths.get(marketDataConfig.getIntradayDir(), SPILL_FILE);
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)))) {
+            int version = in.readInt();
+            if (version != SPILL_FORMAT_VERSION) {
+                System.err.println("[IntradayCandles] Ignoring spill file with unknown version " + version);
+                return;
+            }
+            int coinCount = in.readInt();
+            for (int i = 0; i < coinCount; i++) {
+                String coinGeckoId = in.readUTF();
+                int timeframeCount = in.readInt();
+                EnumMap<Timeframe, CandleRingBuffer> buffers = new EnumMap<>(Timeframe.class);
+                for (int j = 0; j < timeframeCount; j++) {
+                    Timeframe timeframe = Timeframe.valueOf(in.readUTF());
+                    buffers.put(timeframe, CandleRingBuffer.readFrom(in, marketDataConfig.getIntradayCandleCapacity()));
+                }
+                candles.put(coinGeckoId, buffers);
+            }
+            System.out.println("[IntradayCandles] Loaded intraday candles for " + candles.size() + " coins from " + spillFile);
+        } catch (Exception e) {
+            candles.clear();
+            System.err.println("[IntradayCandles] Failed to load spill file, starting empty: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (marketDataConfig.isIntradayEnabled()) {
+            spillToDisk();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${market-data.intraday-poll-seconds:60}",
+        initialDelayString = "${market-data.intraday-poll-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void poll() {
+        if (!marketDataConfig.isIntradayEnabled()) {
+            return;
+        }
+
+        try {
+            List<String> coinGeckoIds = new ArrayList<>();
+            for (Holding holding : loadHoldings()) {
+                String coinGeckoId = holding.getId();
+                if (coinGeckoId != null && !coinGeckoId.isEmpty() && !coinGeckoIds.contains(coinGeckoId)) {
+                    coinGeckoIds.add(coinGeckoId);
+                }
+            }
+            if (coinGeckoIds.isEmpty()) {
+                return;
+            }
+
+            Map<String, MarketData> spotPrices = marketDataCacheService.getProvider().fetchSpotPrices(coinGeckoIds);
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, MarketData> spot : spotPrices.entrySet()) {
+                MarketData data = spot.getValue();
+                if (data == null || data.getCurrentPrice() <= 0) {
+                    continue;
+                }
+                for (CandleRingBuffer buffer : buffersFor(spot.getKey()).values()) {
+                    buffer.update(now, data.getCurrentPrice(), data.getVolume24h());
+                }
+            }
+            lastPollMillis = now;
+            pollCount++;
+
+            if (now - lastSpillMillis >= TimeUnit.MINUTES.toMillis(marketDataConfig.getIntradaySpillIntervalMinutes())) {
+                spillToDisk();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failedPolls++;
+            System.err.println("[IntradayCandles] Intraday poll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Candles for a coin and timeframe, or null when intraday mode has not seen the coin yet
+     */
+    public CandleRingBuffer getCandles(String coinGeckoId, Timeframe timeframe) {
+        EnumMap<Timeframe, CandleRingBuffer> buffers = candles.get(coinGeckoId);
+        return buffers != null ? buffers.get(timeframe) : null;
+    }
+
+    /**
+     * Newest candles (up to limit) as rows for the API, oldest first
+     */
+    public List<Map<String, Object>> getCandleRows(String coinGeckoId, Timeframe timeframe, int limit) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        CandleRingBuffer buffer = getCandles(coinGeckoId, timeframe);
+        if (buffer == null) {
+            return rows;
+        }
+        synchronized (buffer) {
+            for (int i = Math.max(0, buffer.size() - limit); i < buffer.size(); i++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("openTime", Instant.ofEpochMilli(buffer.openTimeAt(i)).toString());
+                row.put("open", buffer.openAt(i));
+                row.put("high", buffer.highAt(i));
+                row.put("low", buffer.lowAt(i));
+                row.put("close", buffer.closeAt(i));
+                row.put("volume", buffer.volumeAt(i));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", marketDataConfig.isIntradayEnabled());
+        stats.put("coins", candles.size());
+        stats.put("polls", pollCount);
+        stats.put("failedPolls", failedPolls);
+        stats.put("lastPoll", lastPollMillis > 0 ? Instant.ofEpochMilli(lastPollMillis).toString() : null);
+        stats.put("lastSpill", Instant.ofEpochMilli(lastSpillMillis).toString());
+        stats.put("candleCapacity", marketDataConfig.getIntradayCandleCapacity());
+        return stats;
+    }
+
+    private EnumMap<Timeframe, CandleRingBuffer> buffersFor(String coinGeckoId) {
+        return candles.computeIfAbsent(coinGeckoId, id -> {
+            EnumMap<Timeframe, CandleRingBuffer> buffers = new EnumMap<>(Timeframe.class);
+            for (Timeframe timeframe : Timeframe.values()) {
+                buffers.put(timeframe, new CandleRingBuffer(timeframe.getIntervalMs(), marketDataConfig.getIntradayCandleCapacity()));
+            }
+            return buffers;
+        });
+    }
+
+    /**
+     * Write all buffers to a temp file and move it over the previous spill
+     */
+    private synchronized void spillToDisk() {
+        try {
+            Path dir = Paths.get(marketDataConfig.getIntradayDir());
+            Files.createDirectories(dir);
+            Path tempFile = dir.resolve(SPILL_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                Map<String, EnumMap<Timeframe, CandleRingBuffer>> current = new LinkedHashMap<>(candles);
+                out.writeInt(SPILL_FORMAT_VERSION);
+                out.writeInt(current.size());
+                for (Map.Entry<String, EnumMap<Timeframe, CandleRingBuffer>> coin : current.entrySet()) {
+                    out.writeUTF(coin.getKey());
+                    out.writeInt(coin.getValue().size());
+                    for (Map.Entry<Timeframe, CandleRingBuffer> buffer : coin.getValue().entrySet()) {
+                        out.writeUTF(buffer.getKey().name());
+                        buffer.getValue().writeTo(out);
+                    }
+                }
+            }
+            Files.move(tempFile, dir.resolve(SPILL_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSpillMillis = System.currentTimeMillis();
+        } catch (IOException e) {
+            System.err.println("[IntradayCandles] Failed to spill candles to disk: " + e.getMessage());
+        }
+    }
+
+    private List<Holding> loadHoldings() {
+        try {
+            ClassPathResource resource = new ClassPathResource("holdings.json");
+            Holdings holdings = objectMapper.readValue(resource.getInputStream(), Holdings.class);
+            return holdings.getCryptos();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load holdings from holdings.json", e);
+        }
+    }
+}
@@ -1,37 +1,116 @@
 package com.quat.cryptoNotifier.service;
 
+import com.quat.cryptoNotifier.config.MarketDataConfig;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.Holdings;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.IndicatorEngine;
 import com.quat.cryptoNotifier.util.IndicatorUtils;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.quat.cryptoNotifier.util.OhlcvIndicators;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 @Service
 public class MarketDataCacheService {
 
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataStore marketDataStore;
+
+    @Autowired
+    private List<MarketDataProvider> marketDataProviders;
+
+    @Autowired
+    private MarketDataTtlPolicy ttlPolicy;
+
+    @Autowired
+    private MarketDataMetrics marketDataMetrics;
+
+    private MarketDataProvider provider;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ConcurrentHashMap<String, CachedMarketData> cache = new ConcurrentHashMap<>();
-    private final ReentrantLock cacheLock = new ReentrantLock();
-    private static final String CACHE_FILE_PATH = "cache/market-data-cache.json";
+    // Bounded by total history points (W-TinyLFU); evicted entries are written to the store
+    private Cache<String, CachedMarketData> cache;
+    private final ConcurrentHashMap<String, CachedMarketData> evictedPending = new ConcurrentHashMap<>();
+    private final Set<String> removedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong storeReloads = new AtomicLong();
+    private volatile boolean loadingFromStore;
+    private final ConcurrentHashMap<String, CompletableFuture<MarketData>> inFlightLoads = new ConcurrentHashMap<>();
+    // Coins with a background refresh queued or running, so a burst of stale reads queues only one
+    private final Set<String> pendingRevalidations = ConcurrentHashMap.newKeySet();
+    // Per-thread output buffers for the daily indicators, reused across loads
+    private final ThreadLocal<double[]> indicatorOutput = ThreadLocal.withInitial(() -> new double[3]);
+    private final ThreadLocal<IndicatorUtils.MACDSeries> macdOutput = ThreadLocal.withInitial(IndicatorUtils.MACDSeries::new);
+    private final ExecutorService revalidationExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "market-data-revalidate");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Write-behind persistence: all file I/O runs on this single thread
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private volatile long firstDirtyMillis;
+    private volatile long lastDirtyMillis;
+    private final ScheduledExecutorService persistenceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "market-data-persist");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Legacy single-file cache, migrated into the segmented store on first startup
+    private static final String LEGACY_CACHE_FILE_PATH = "cache/market-data-cache.json";
+    private static final long FLUSH_CHECK_INTERVAL_MS = 1000;
+    private static final int HISTORY_DAYS = 200;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long ENTRY_OVERHEAD_BYTES = 512;
+    private static final int MACD_CROSSOVER_LOOKBACK_DAYS = 10;
 
     public MarketDataCacheService() {
         this.objectMapper = new ObjectMapper();
@@ -39,9 +118,13 @@ public class MarketDataCacheService {
     }
 
     // Cache entry with timestamp - made static for JSON serialization
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class CachedMarketData {
         private MarketData marketData;
         private LocalDateTime cacheTime;
+        private LocalDateTime historyTime;
+        // Indicator state over every close seen so far, advanced incrementally on refresh
+        private IndicatorEngine indicatorEngine;
 
         // Default constructor for JSON deserialization
         public CachedMarketData() {}
@@ -49,6 +132,13 @@ public class MarketDataCacheService {
         public CachedMarketData(MarketData marketData) {
             this.marketData = marketData;
             this.cacheTime = LocalDateTime.now();
+            this.historyTime = this.cacheTime;
+        }
+
+        public CachedMarketData(MarketData marketData, LocalDateTime historyTime) {
+            this.marketData = marketData;
+            this.cacheTime = LocalDateTime.now();
+            this.historyTime = historyTime;
         }
 
         public MarketData getMarketData() {
@@ -67,109 +157,282 @@ public class MarketDataCacheService {
             this.cacheTime = cacheTime;
         }
 
+        public LocalDateTime getHistoryTime() {
+            return historyTime;
+        }
+
+        public void setHistoryTime(LocalDateTime historyTime) {
+            this.historyTime = historyTime;
+        }
+
+        public IndicatorEngine getIndicatorEngine() {
+            return indicatorEngine;
+        }
+
+        public void setIndicatorEngine(IndicatorEngine indicatorEngine) {
+            this.indicatorEngine = indicatorEngine;
+        }
+
         public boolean isExpired(int cacheHours) {
             return LocalDateTime.now().isAfter(cacheTime.plusHours(cacheHours));
         }
+
+        public boolean isExpiredAfterMinutes(long cacheMinutes) {
+            return LocalDateTime.now().isAfter(cacheTime.plusMinutes(cacheMinutes));
+        }
+
+        /**
+         * Daily history is stale once a new UTC daily close exists since it was fetched
+         */
+        @JsonIgnore
+        public boolean isHistoryStale() {
+            LocalDateTime fetchedAt = historyTime != null ? historyTime : cacheTime;
+            if (fetchedAt == null || marketData == null || marketData.getPriceSeries() == null
+                    || marketData.getPriceSeries().isEmpty()) {
+                return true;
+            }
+            LocalDateTime startOfUtcDay = LocalDate.now(ZoneOffset.UTC).atStartOfDay()
+                .atOffset(ZoneOffset.UTC)
+                .atZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+            return fetchedAt.isBefore(startOfUtcDay);
+        }
     }
 
     /**
-     * Initialize cache by loading from file on startup
+     * Initialize cache from the on-disk store on startup and start the write-behind flusher
      */
     @PostConstruct
     public void initializeCache() {
-        loadCacheFromFile();
+        cache = buildCache();
+        bindMetrics();
+        provider = selectProvider();
+        migrateLegacyCacheFile();
+        loadCacheFromStore();
+        persistenceExecutor.scheduleWithFixedDelay(this::flushIfDue,
+            FLUSH_CHECK_INTERVAL_MS, FLUSH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Save cache to file before application shutdown
+     * Flush pending changes to the store before application shutdown
      */
     @PreDestroy
     public void shutdownCache() {
-        saveCacheToFile();
+        revalidationExecutor.shutdownNow();
+        try {
+            persistenceExecutor.submit(this::flushToStore).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("[MarketDataCache] Final cache flush failed: " + e.getMessage());
+        } finally {
+            persistenceExecutor.shutdown();
+        }
     }
 
     /**
-     * Load cache from file
+     * Pick the market data provider named by market-data.provider
      */
-    private void loadCacheFromFile() {
-        cacheLock.lock();
-        try {
-            File cacheFile = new File(CACHE_FILE_PATH);
-            if (!cacheFile.exists()) {
-                System.out.println("[MarketDataCache] No cache file found - starting with empty cache");
-                return;
+    private MarketDataProvider selectProvider() {
+        String name = marketDataConfig.getProvider();
+        for (MarketDataProvider candidate : marketDataProviders) {
+            if (candidate.getName().equalsIgnoreCase(name)) {
+                System.out.println("[MarketDataCache] Using market data provider: " + candidate.getName());
+                return candidate;
             }
+        }
+        throw new IllegalStateException("Unknown market-data.provider '" + name + "'");
+    }
 
-            System.out.println("[MarketDataCache] Loading cache from file: " + CACHE_FILE_PATH);
+    /**
+     * Weight is 1 + the number of daily history points, so coins with long histories
+     * take proportionally more of market-data.cache-max-weight. Entries written since the
+     * last flush are kept in evictedPending until the flusher appends them to the store;
+     * while the cache is loading from the store nothing needs to be written back.
+     */
+    private Cache<String, CachedMarketData> buildCache() {
+        return Caffeine.newBuilder()
+            .maximumWeight(marketDataConfig.getCacheMaxWeight())
+            .weigher((String coinGeckoId, CachedMarketData entry) -> 1 + historyLength(entry))
+            .evictionListener((String coinGeckoId, CachedMarketData entry, RemovalCause cause) -> {
+                if (coinGeckoId != null && entry != null && !loadingFromStore) {
+                    evictedPending.put(coinGeckoId, entry);
+                    markDirty(coinGeckoId);
+                }
+            })
+            .recordStats()
+            .build();
+    }
 
-            // Read the cache file as a map
-            Map<String, CachedMarketData> savedCache = objectMapper.readValue(
-                cacheFile,
-                objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, CachedMarketData.class)
-            );
+    private void bindMetrics() {
+        Map<String, Supplier<Number>> gauges = new LinkedHashMap<>();
+        gauges.put("market.data.cache.dirty.entries", dirtyKeys::size);
+        gauges.put("market.data.cache.pending.evictions", evictedPending::size);
+        gauges.put("market.data.cache.inflight.loads", inFlightLoads::size);
+        gauges.put("market.data.cache.store.reloads", storeReloads::get);
+        marketDataMetrics.bindCache(cache, gauges);
+    }
 
-            // Clear current cache and load saved data
-            cache.clear();
-            int loadedCount = 0;
-            int expiredCount = 0;
+    private static int historyLength(CachedMarketData entry) {
+        PriceSeries series = entry.getMarketData() != null ? entry.getMarketData().getPriceSeries() : null;
+        return series != null ? series.size() : 0;
+    }
 
-            for (Map.Entry<String, CachedMarketData> entry : savedCache.entrySet()) {
-                CachedMarketData cachedData = entry.getValue();
+    /**
+     * The market data provider selected by market-data.provider
+     */
+    public MarketDataProvider getProvider() {
+        return provider;
+    }
 
-                // Only load non-expired entries (within 18 hours)
-                if (!cachedData.isExpired(18)) {
-                    cache.put(entry.getKey(), cachedData);
+    /**
+     * Load entries from the segmented store that are still fresh or can be served stale
+     */
+    private void loadCacheFromStore() {
+        cache.invalidateAll();
+        loadingFromStore = true;
+        int loadedCount = 0;
+        int expiredCount = 0;
+        int maxUsableHours = marketDataConfig.getMaxTtlHours() + marketDataConfig.getMaxStaleHours();
+
+        for (String coinGeckoId : marketDataStore.keys()) {
+            try {
+                CachedMarketData cachedData = marketDataStore.get(coinGeckoId);
+
+                if (cachedData != null && !cachedData.isExpired(maxUsableHours)) {
+                    cache.put(coinGeckoId, cachedData);
                     loadedCount++;
                 } else {
                     expiredCount++;
                 }
+            } catch (Exception e) {
+                System.err.println("[MarketDataCache] Error loading " + coinGeckoId + " from store: " + e.getMessage());
             }
+        }
+        cache.cleanUp();
+        loadingFromStore = false;
 
-            System.out.println("[MarketDataCache] Cache loaded successfully. " +
-                "Loaded: " + loadedCount + ", Expired (skipped): " + expiredCount);
+        System.out.println("[MarketDataCache] Cache loaded from store. " +
+            "Loaded: " + loadedCount + ", Expired (skipped): " + expiredCount);
+    }
 
-        } catch (IOException e) {
-            System.err.println("[MarketDataCache] Error loading cache from file: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * One-time import of the old monolithic JSON cache file into the segmented store
+     */
+    private void migrateLegacyCacheFile() {
+        File legacyFile = new File(LEGACY_CACHE_FILE_PATH);
+        if (!legacyFile.exists()) {
+            return;
+        }
+
+        try {
+            if (marketDataStore.isEmpty()) {
+                System.out.println("[MarketDataCache] Migrating legacy cache file: " + LEGACY_CACHE_FILE_PATH);
+                Map<String, CachedMarketData> savedCache = objectMapper.readValue(
+                    legacyFile,
+                    objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, CachedMarketData.class)
+                );
+                for (Map.Entry<String, CachedMarketData> entry : savedCache.entrySet()) {
+                    marketDataStore.put(entry.getKey(), entry.getValue());
+                }
+                marketDataStore.sync();
+                System.out.println("[MarketDataCache] Migrated " + savedCache.size() + " entries into the store");
+            }
+            Files.move(legacyFile.toPath(), Paths.get(LEGACY_CACHE_FILE_PATH + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
-            System.err.println("[MarketDataCache] Unexpected error loading cache: " + e.getMessage());
+            System.err.println("[MarketDataCache] Error migrating legacy cache file: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            cacheLock.unlock();
         }
     }
 
     /**
-     * Save cache to file
+     * Mark a cache entry as changed; the write-behind flusher persists it later
      */
-    private void saveCacheToFile() {
-        cacheLock.lock();
-        try {
-            // Create cache directory if it doesn't exist
-            File cacheDir = new File("cache");
-            if (!cacheDir.exists()) {
-                cacheDir.mkdirs();
-            }
+    private void markDirty(String coinGeckoId) {
+        long now = System.currentTimeMillis();
+        if (dirtyKeys.isEmpty()) {
+            firstDirtyMillis = now;
+        }
+        lastDirtyMillis = now;
+        dirtyKeys.add(coinGeckoId);
 
-            File cacheFile = new File(CACHE_FILE_PATH);
+        if (dirtyKeys.size() == marketDataConfig.getPersistDirtyThreshold()) {
+            requestFlush();
+        }
+    }
 
-            // Convert concurrent map to regular map for serialization
-            Map<String, CachedMarketData> cacheToSave = new HashMap<>(cache);
+    /**
+     * Queue a flush on the persistence thread
+     */
+    private void requestFlush() {
+        try {
+            persistenceExecutor.execute(this::flushToStore);
+        } catch (RejectedExecutionException e) {
+            System.err.println("[MarketDataCache] Cache flush rejected: " + e.getMessage());
+        }
+    }
 
-            objectMapper.writeValue(cacheFile, cacheToSave);
+    /**
+     * Periodic check: flush once updates have settled for the debounce interval,
+     * the dirty-count threshold is reached, or the oldest change has waited too long
+     */
+    private void flushIfDue() {
+        if (dirtyKeys.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean settled = now - lastDirtyMillis >= TimeUnit.SECONDS.toMillis(marketDataConfig.getPersistDebounceSeconds());
+        boolean overdue = now - firstDirtyMillis >= TimeUnit.SECONDS.toMillis(marketDataConfig.getPersistMaxDelaySeconds());
+        boolean thresholdReached = dirtyKeys.size() >= marketDataConfig.getPersistDirtyThreshold();
+        if (settled || overdue || thresholdReached) {
+            flushToStore();
+        }
+    }
+
+    /**
+     * Append every dirty entry (or a tombstone for removed ones) to the store, then compact
+     * if needed. Only ever runs on the persistence thread and never holds a cache lock.
+     */
+    private void flushToStore() {
+        if (dirtyKeys.isEmpty()) {
+            return;
+        }
 
-            System.out.println("[MarketDataCache] Cache saved to file: " + CACHE_FILE_PATH +
-                " (" + cache.size() + " entries)");
+        long flushStart = System.nanoTime();
+        List<String> flushedKeys = new ArrayList<>(dirtyKeys);
+        dirtyKeys.removeAll(flushedKeys);
+        firstDirtyMillis = System.currentTimeMillis();
+
+        List<String> failedKeys = new ArrayList<>();
+        for (String coinGeckoId : flushedKeys) {
+            try {
+                CachedMarketData cachedData = cache.asMap().get(coinGeckoId);
+                CachedMarketData evicted = evictedPending.remove(coinGeckoId);
+                if (cachedData == null) {
+                    cachedData = evicted;
+                }
+                if (cachedData != null) {
+                    marketDataStore.put(coinGeckoId, cachedData);
+                    removedKeys.remove(coinGeckoId);
+                } else if (removedKeys.remove(coinGeckoId)) {
+                    marketDataStore.delete(coinGeckoId);
+                }
+            } catch (Exception e) {
+                failedKeys.add(coinGeckoId);
+                System.err.println("[MarketDataCache] Error persisting " + coinGeckoId + ": " + e.getMessage());
+            }
+        }
 
+        try {
+            marketDataStore.sync();
+            marketDataStore.compactIfNeeded();
         } catch (IOException e) {
-            System.err.println("[MarketDataCache] Error saving cache to file: " + e.getMessage());
-            e.printStackTrace();
-        } catch (Exception e) {
-            System.err.println("[MarketDataCache] Unexpected error saving cache: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            cacheLock.unlock();
+            System.err.println("[MarketDataCache] Error syncing market data store: " + e.getMessage());
         }
+
+        // Keep failed entries dirty so the next flush retries them
+        dirtyKeys.addAll(failedKeys);
+        marketDataMetrics.recordFlush(System.nanoTime() - flushStart);
+        System.out.println("[MarketDataCache] Flushed " + (flushedKeys.size() - failedKeys.size()) +
+            " changed entries to store" + (failedKeys.isEmpty() ? "" : " (" + failedKeys.size() + " failed)"));
     }
 
     /**
@@ -177,136 +440,196 @@ public class MarketDataCacheService {
      */
     public void saveCacheManually() {
         System.out.println("[MarketDataCache] Manual cache save triggered");
-        saveCacheToFile();
+        requestFlush();
     }
 
     /**
      * Set market data in cache and save to file
      */
     public void setMarketData(String coinGeckoId, MarketData marketData) {
-        cacheLock.lock();
-        try {
-            cache.put(coinGeckoId, new CachedMarketData(marketData));
-            System.out.println("[MarketDataCache] Updated cache for " + coinGeckoId);
-
-            // Save to file after updating cache
-            saveCacheToFile();
-
-        } finally {
-            cacheLock.unlock();
-        }
+        cache.put(coinGeckoId, new CachedMarketData(marketData));
+        System.out.println("[MarketDataCache] Updated cache for " + coinGeckoId);
+        markDirty(coinGeckoId);
     }
 
     /**
-     * Get market data with caching (12-hour cache duration)
+     * Get market data with caching, using the coin's adaptive TTL
      */
     public MarketData getMarketData(String coinGeckoId) {
-        return getMarketData(coinGeckoId, 12);
+        CachedMarketData cachedData = lookupEntry(coinGeckoId);
+        return getMarketDataWithTtl(coinGeckoId, cachedData, ttlPolicy.getTtlMinutes(coinGeckoId, cachedData));
     }
 
     /**
      * Get market data with custom cache duration
      */
     public MarketData getMarketData(String coinGeckoId, int cacheHours) {
-        cacheLock.lock();
-        try {
-            CachedMarketData cachedData = cache.get(coinGeckoId);
+        return getMarketDataWithTtl(coinGeckoId, lookupEntry(coinGeckoId), TimeUnit.HOURS.toMinutes(cacheHours));
+    }
 
-            // Check if cache exists and is not expired
-            if (cachedData != null && !cachedData.isExpired(cacheHours)) {
-                System.out.println("[MarketDataCache] Using cached data for " + coinGeckoId +
-                    " (cached at: " + cachedData.getCacheTime() + ")");
-                return cachedData.getMarketData();
-            }
+    /**
+     * Hits never block; misses for the same coin share a single in-flight load
+     */
+    private MarketData getMarketDataWithTtl(String coinGeckoId, CachedMarketData cachedData, long ttlMinutes) {
+        // Check if cache exists and is not expired
+        if (cachedData != null && !cachedData.isExpiredAfterMinutes(ttlMinutes)) {
+            marketDataMetrics.recordCacheRequest("hit");
+            System.out.println("[MarketDataCache] Using cached data for " + coinGeckoId +
+                " (cached at: " + cachedData.getCacheTime() + ")");
+            return cachedData.getMarketData();
+        }
 
-            // Cache miss or expired - fetch fresh data
-            System.out.println("[MarketDataCache] Cache miss/expired for " + coinGeckoId +
-                " - fetching fresh data");
+        // Expired but still usable - serve it now and revalidate in the background
+        if (cachedData != null && marketDataConfig.isStaleWhileRevalidate()
+                && !cachedData.isExpiredAfterMinutes(ttlMinutes + TimeUnit.HOURS.toMinutes(marketDataConfig.getMaxStaleHours()))) {
+            System.out.println("[MarketDataCache] Serving stale data for " + coinGeckoId +
+                " (cached at: " + cachedData.getCacheTime() + ") - refreshing in background");
+            marketDataMetrics.recordCacheRequest("stale");
+            refreshInBackground(coinGeckoId);
+            // Flag a copy; the cached instance is also served to callers with a longer TTL
+            MarketData staleData = cachedData.getMarketData().copy();
+            staleData.setStale(true);
+            return staleData;
+        }
 
-            MarketData freshData = fetchMarketDataDirect(coinGeckoId);
-            cache.put(coinGeckoId, new CachedMarketData(freshData));
+        // Cache miss or hard-expired - fetch fresh data
+        marketDataMetrics.recordCacheRequest("miss");
+        System.out.println("[MarketDataCache] Cache miss/expired for " + coinGeckoId +
+            " - fetching fresh data");
 
-            System.out.println("[MarketDataCache] Cached fresh data for " + coinGeckoId);
-            return freshData;
+        MarketData freshData = loadSingleFlight(coinGeckoId);
+        System.out.println("[MarketDataCache] Cached fresh data for " + coinGeckoId);
+        return freshData;
+    }
 
-        } finally {
-            cacheLock.unlock();
+    /**
+     * In-memory entry, or an evicted one brought back from the store if still usable
+     */
+    private CachedMarketData lookupEntry(String coinGeckoId) {
+        CachedMarketData cachedData = cache.getIfPresent(coinGeckoId);
+        if (cachedData != null) {
+            return cachedData;
         }
+        CachedMarketData evicted = findEvictedEntry(coinGeckoId);
+        if (evicted == null) {
+            return null;
+        }
+        storeReloads.incrementAndGet();
+        CachedMarketData existing = cache.asMap().putIfAbsent(coinGeckoId, evicted);
+        return existing != null ? existing : evicted;
+    }
+
+    /**
+     * Evicted entry awaiting flush or already in the store, if it can still be served
+     */
+    private CachedMarketData findEvictedEntry(String coinGeckoId) {
+        CachedMarketData entry = evictedPending.get(coinGeckoId);
+        if (entry == null) {
+            try {
+                entry = marketDataStore.get(coinGeckoId);
+            } catch (Exception e) {
+                System.err.println("[MarketDataCache] Could not read " + coinGeckoId + " from store: " + e.getMessage());
+                return null;
+            }
+        }
+        int maxUsableHours = marketDataConfig.getMaxTtlHours() + marketDataConfig.getMaxStaleHours();
+        return entry != null && !entry.isExpired(maxUsableHours) ? entry : null;
+    }
+
+    /**
+     * Current entry for a coin, including evicted ones from the store, or null; never
+     * triggers a load and does not bring evicted entries back into memory
+     */
+    public CachedMarketData getCachedEntry(String coinGeckoId) {
+        CachedMarketData cachedData = cache.asMap().get(coinGeckoId);
+        return cachedData != null ? cachedData : findEvictedEntry(coinGeckoId);
     }
 
     /**
      * Refresh cache for a specific coin
      */
     public void refreshCache(String coinGeckoId) {
-        cacheLock.lock();
         try {
             System.out.println("[MarketDataCache] Refreshing cache for " + coinGeckoId);
-            MarketData freshData = fetchMarketDataDirect(coinGeckoId);
-            cache.put(coinGeckoId, new CachedMarketData(freshData));
+            loadSingleFlight(coinGeckoId);
             System.out.println("[MarketDataCache] Successfully refreshed cache for " + coinGeckoId);
 
-            // Save to file after refresh
-            saveCacheToFile();
-
         } catch (Exception e) {
             System.err.println("[MarketDataCache] Failed to refresh cache for " + coinGeckoId + ": " + e.getMessage());
-        } finally {
-            cacheLock.unlock();
         }
     }
 
     /**
-     * Direct API call method - fetches fresh data from CoinGecko
+     * Start a background refresh for a coin unless one is already queued or in flight
      */
-    private MarketData fetchMarketDataDirect(String coinGeckoId) {
+    private void refreshInBackground(String coinGeckoId) {
+        if (inFlightLoads.containsKey(coinGeckoId) || !pendingRevalidations.add(coinGeckoId)) {
+            return;
+        }
         try {
-            // Get current price from CoinGecko
-            String priceUrl = String.format("https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd&include_24hr_change=true&include_24hr_vol=true",
-                coinGeckoId);
-            System.out.println("[MarketDataCache] Fetching price from: " + priceUrl);
-            String priceResponse = restTemplate.getForObject(priceUrl, String.class);
-            JsonNode priceNode = objectMapper.readTree(priceResponse);
-            JsonNode coinData = priceNode.get(coinGeckoId);
-            if (coinData == null) {
-                System.err.println("[MarketDataCache] No data found for " + coinGeckoId + " in price response: " + priceResponse);
-                throw new RuntimeException("No data found for " + coinGeckoId);
-            }
-
-            MarketData marketData = new MarketData(coinGeckoId, coinData.get("usd").asDouble());
+            revalidationExecutor.execute(() -> {
+                try {
+                    refreshCache(coinGeckoId);
+                } finally {
+                    pendingRevalidations.remove(coinGeckoId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingRevalidations.remove(coinGeckoId);
+            System.err.println("[MarketDataCache] Background refresh rejected for " + coinGeckoId + ": " + e.getMessage());
+        }
+    }
 
-            if (coinData.has("usd_24h_change")) {
-                marketData.setPriceChangePercentage24h(coinData.get("usd_24h_change").asDouble());
+    /**
+     * Load fresh data for a coin, or join the load already in flight for it.
+     * Only callers for the same coin wait on each other; other coins proceed in parallel.
+     */
+    private MarketData loadSingleFlight(String coinGeckoId) {
+        CompletableFuture<MarketData> load = new CompletableFuture<>();
+        CompletableFuture<MarketData> inFlight = inFlightLoads.putIfAbsent(coinGeckoId, load);
+
+        if (inFlight != null) {
+            System.out.println("[MarketDataCache] Waiting for in-flight load of " + coinGeckoId);
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
             }
+        }
 
-            if (coinData.has("usd_24h_vol")) {
-                marketData.setVolume24h(coinData.get("usd_24h_vol").asDouble());
-            }
-            Thread.sleep(30000); // To respect API rate limits
-
-            // Get historical data for technical indicators
-            String historyUrl = String.format("https://api.coingecko.com/api/v3/coins/%s/market_chart?vs_currency=usd&days=200&interval=daily",
-                coinGeckoId);
-            System.out.println("[MarketDataCache] Fetching history from: " + historyUrl);
-            String historyResponse = restTemplate.getForObject(historyUrl, String.class);
-            JsonNode historyNode = objectMapper.readTree(historyResponse);
-            JsonNode pricesArray = historyNode.get("prices");
-            if (pricesArray == null) {
-                System.err.println("[MarketDataCache] No prices array found for " + coinGeckoId + " in history response: " + historyResponse);
-                throw new RuntimeException("No prices array found for " + coinGeckoId);
-            }
+        try {
+            CachedMarketData freshEntry = fetchMarketDataDirect(coinGeckoId);
+            // Publish to the cache before completing so later callers see a hit
+            cache.put(coinGeckoId, freshEntry);
+            markDirty(coinGeckoId);
+            load.complete(freshEntry.getMarketData());
+            return freshEntry.getMarketData();
+        } catch (Throwable t) {
+            // Errors too, or callers already waiting on the future would hang
+            load.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightLoads.remove(coinGeckoId, load);
+        }
+    }
 
-            List<Double> historicalPrices = new ArrayList<>();
-            for (JsonNode pricePoint : pricesArray) {
-                historicalPrices.add(pricePoint.get(1).asDouble());
+    /**
+     * Direct provider call - fetches fresh data from the configured market data source
+     */
+    private CachedMarketData fetchMarketDataDirect(String coinGeckoId) {
+        try {
+            MarketData marketData = fetchSpotPrices(Collections.singletonList(coinGeckoId)).get(coinGeckoId);
+            if (marketData == null) {
+                throw new RuntimeException("No data found for " + coinGeckoId);
             }
-            Thread.sleep(30000); // To respect API rate limits
-
-            marketData.setPrices(historicalPrices);
 
-            // Calculate technical indicators
-            calculateTechnicalIndicators(marketData, historicalPrices);
-
-            return marketData;
+            return buildCacheEntry(coinGeckoId, marketData, findPreviousEntry(coinGeckoId));
 
         } catch (Exception e) {
             System.err.println("[MarketDataCache] Error fetching market data for " + coinGeckoId + ": " + e.getMessage());
@@ -316,68 +639,276 @@ public class MarketDataCacheService {
     }
 
     /**
-     * Calculate technical indicators for market data
+     * Latest known entry for a coin, falling back to the on-disk store for entries
+     * too old to be loaded into memory; their history can still be synced incrementally
      */
-    private void calculateTechnicalIndicators(MarketData marketData, List<Double> prices) {
+    private CachedMarketData findPreviousEntry(String coinGeckoId) {
+        CachedMarketData existing = cache.asMap().get(coinGeckoId);
+        if (existing == null) {
+            existing = evictedPending.get(coinGeckoId);
+        }
+        if (existing != null) {
+            return existing;
+        }
         try {
-            // Calculate RSI (14 period)
-            Double rsi = IndicatorUtils.calculateRSI(prices, 14);
-            marketData.setRsi(rsi);
+            return marketDataStore.get(coinGeckoId);
+        } catch (Exception e) {
+            System.err.println("[MarketDataCache] Could not read " + coinGeckoId + " from store: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Combine fresh spot data with the coin's daily history and indicators.
+     * The existing history is reused while it is current, otherwise only its missing tail is fetched.
+     */
+    private CachedMarketData buildCacheEntry(String coinGeckoId, MarketData marketData, CachedMarketData existing)
+            throws IOException, InterruptedException {
+        LocalDateTime historyTime;
+        MarketData previous = existing != null ? existing.getMarketData() : null;
+
+        if (existing != null && !existing.isHistoryStale()) {
+            marketData.setPriceSeries(previous.getPriceSeries());
+            historyTime = existing.getHistoryTime() != null ? existing.getHistoryTime() : existing.getCacheTime();
+        } else {
+            syncPriceHistory(coinGeckoId, previous, marketData);
+            historyTime = LocalDateTime.now();
+        }
+
+        // /simple/price may omit the market cap; fall back to the latest daily value
+        PriceSeries series = marketData.getPriceSeries();
+        if (marketData.getMarketCap() == 0 && series != null && !series.isEmpty()
+                && !Double.isNaN(series.marketCapAt(series.size() - 1))) {
+            marketData.setMarketCap(series.marketCapAt(series.size() - 1));
+        }
+
+        // Calculate technical indicators
+        IndicatorEngine engine = syncIndicatorEngine(coinGeckoId, existing, series);
+        calculateTechnicalIndicators(marketData, engine, series);
+
+        CachedMarketData entry = new CachedMarketData(marketData, historyTime);
+        entry.setIndicatorEngine(engine);
+        return entry;
+    }
+
+    /**
+     * Advance a copy of the previous entry's indicator engine by the closes added since,
+     * or rebuild it from the series when there is none or the history was replaced
+     */
+    private IndicatorEngine syncIndicatorEngine(String coinGeckoId, CachedMarketData existing, PriceSeries series) {
+        if (series == null || series.isEmpty()) {
+            return null;
+        }
+        IndicatorEngine previous = existing != null ? existing.getIndicatorEngine() : null;
+        if (previous != null) {
+            // The previous entry may still be read or persisted; never mutate its engine
+            IndicatorEngine engine = previous.copy();
+            if (engine.sync(series, DAY_MILLIS)) {
+                return engine;
+            }
+            System.out.println("[MarketDataCache] History for " + coinGeckoId +
+                " does not continue the indicator state - rebuilding indicators");
+        }
+        return IndicatorEngine.of(series);
+    }
+
+    /**
+     * Bring a coin's daily close series up to date. When the previous series is intact and
+     * recent, only the missing tail is downloaded and merged in; gaps or corrupt history
+     * fall back to a full 200-day download.
+     */
+    private void syncPriceHistory(String coinGeckoId, MarketData previous, MarketData target)
+            throws IOException, InterruptedException {
+        PriceSeries stored = previous != null ? previous.getPriceSeries() : null;
+
+        if (isUsableHistory(stored)) {
+            long lastDay = stored.lastTimestamp() / DAY_MILLIS;
+            long missingDays = System.currentTimeMillis() / DAY_MILLIS - lastDay;
+            if (missingDays < HISTORY_DAYS) {
+                // Include the last stored day again: it may hold a provisional intraday price
+                int days = (int) Math.max(2, missingDays + 1);
+                PriceSeries tail = fetchPriceHistory(coinGeckoId, days);
+                PriceSeries merged = mergeHistory(stored, tail);
+                if (merged != null) {
+                    target.setPriceSeries(merged);
+                    System.out.println("[MarketDataCache] Incremental history sync for " + coinGeckoId +
+                        ": fetched " + tail.size() + " points (days=" + days + ")");
+                    return;
+                }
+                System.out.println("[MarketDataCache] History tail for " + coinGeckoId +
+                    " does not connect to stored series - falling back to full download");
+            }
+        } else if (stored != null) {
+            System.out.println("[MarketDataCache] Stored history for " + coinGeckoId +
+                " is missing timestamps or inconsistent - falling back to full download");
+        }
+
+        target.setPriceSeries(fetchPriceHistory(coinGeckoId, HISTORY_DAYS));
+    }
 
-            // Calculate SMAs
-            Double sma20 = IndicatorUtils.calculateSMA(prices, 20);
-            marketData.setSma20(sma20);
+    /**
+     * Stored history is usable for incremental sync if its timestamps are set and ordered
+     */
+    private boolean isUsableHistory(PriceSeries series) {
+        if (series == null || series.size() < 2) {
+            return false;
+        }
+        long[] timestamps = series.timestampsArray();
+        double[] closes = series.closesArray();
+        for (int i = 0; i < series.size(); i++) {
+            if (Double.isNaN(closes[i]) || closes[i] <= 0 || timestamps[i] <= 0) {
+                return false;
+            }
+            if (i > 0 && timestamps[i] <= timestamps[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            Double sma50 = IndicatorUtils.calculateSMA(prices, 50);
-            marketData.setSma50(sma50);
+    /**
+     * Merge a freshly fetched tail into the stored series, one point per UTC day with the
+     * newer fetch winning, and keep the most recent window. Returns null if the tail
+     * leaves a gap after the stored series.
+     */
+    private PriceSeries mergeHistory(PriceSeries stored, PriceSeries tail) {
+        if (tail.isEmpty()) {
+            return null;
+        }
+        long firstTailDay = tail.timestampAt(0) / DAY_MILLIS;
+        if (firstTailDay > stored.lastTimestamp() / DAY_MILLIS + 1) {
+            return null;
+        }
 
-            Double sma200 = IndicatorUtils.calculateSMA(prices, 200);
-            marketData.setSma200(sma200);
+        // Both series are in timestamp order: keep stored days before the tail, then the tail
+        PriceSeries merged = new PriceSeries(stored.size() + tail.size());
+        for (int i = 0; i < stored.size() && stored.timestampAt(i) / DAY_MILLIS < firstTailDay; i++) {
+            merged.append(stored.timestampAt(i), stored.closeAt(i), stored.volumeAt(i), stored.marketCapAt(i));
+        }
+        appendDailyPoints(merged, tail);
+        return merged.tail(HISTORY_DAYS + 1);
+    }
 
-            // Calculate MACD
-            IndicatorUtils.MACDResult macdResult = IndicatorUtils.calculateMACD(prices, 12, 26, 9);
-            if (macdResult != null) {
-                marketData.setMacd(macdResult.getMacd());
-                marketData.setMacdSignal(macdResult.getSignal());
+    /**
+     * Append each point of source, replacing the last point of target when it falls on the same UTC day
+     */
+    private void appendDailyPoints(PriceSeries target, PriceSeries source) {
+        for (int i = 0; i < source.size(); i++) {
+            long timestamp = source.timestampAt(i);
+            if (!target.isEmpty() && target.lastTimestamp() / DAY_MILLIS == timestamp / DAY_MILLIS) {
+                target.replaceLast(timestamp, source.closeAt(i), source.volumeAt(i), source.marketCapAt(i));
+            } else {
+                target.append(timestamp, source.closeAt(i), source.volumeAt(i), source.marketCapAt(i));
             }
+        }
+    }
+
+    /**
+     * Fetch the last N days of daily closes, volumes and market caps used for technical indicators
+     */
+    private PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException, InterruptedException {
+        PriceSeries raw = marketDataMetrics.timeFetch(MarketDataMetrics.ENDPOINT_HISTORY,
+            () -> provider.fetchPriceHistory(coinGeckoId, days));
+
+        // market_chart repeats the current day as a live point; keep one point per day
+        PriceSeries history = new PriceSeries(raw.size());
+        appendDailyPoints(history, raw);
+        return history;
+    }
+
+    private Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException {
+        return marketDataMetrics.timeFetch(MarketDataMetrics.ENDPOINT_PRICE, () -> provider.fetchSpotPrices(coinGeckoIds));
+    }
+
+    /**
+     * Calculate technical indicators for market data: current values from the streaming
+     * engine, recent MACD crossovers from one pass over the daily series, and the
+     * volatility/volume indicators over the daily series. Daily history has no intraday
+     * ranges, so closes stand in for highs and lows.
+     */
+    private void calculateTechnicalIndicators(MarketData marketData, IndicatorEngine engine, PriceSeries series) {
+        if (engine == null) {
+            return;
+        }
+        try {
+            marketData.setRsi(engine.getRsi());
+            marketData.setSma20(engine.getSma20());
+            marketData.setSma50(engine.getSma50());
+            marketData.setSma200(engine.getSma200());
+            marketData.setMacd(engine.getMacd());
+            marketData.setMacdSignal(engine.getMacdSignal());
+            marketData.setMacdHistogram(engine.getMacdHistogram());
+
+            IndicatorUtils.MACDSeries macd = IndicatorUtils.calculateMACDSeries(series, IndicatorEngine.MACD_FAST,
+                IndicatorEngine.MACD_SLOW, IndicatorEngine.MACD_SIGNAL, macdOutput.get());
+            int crossoverIndex = macd.lastCrossoverIndex(MACD_CROSSOVER_LOOKBACK_DAYS);
+            if (crossoverIndex >= 0) {
+                marketData.setMacdCrossover(macd.crossoverAt(crossoverIndex) > 0 ? "BULLISH" : "BEARISH");
+                marketData.setMacdCrossoverDaysAgo(macd.size() - 1 - crossoverIndex);
+            }
+
+            calculateVolatilityIndicators(marketData, series);
 
         } catch (Exception e) {
             System.err.println("[MarketDataCache] Error calculating technical indicators for " + marketData.getSymbol() + ": " + e.getMessage());
         }
     }
 
+    private void calculateVolatilityIndicators(MarketData marketData, PriceSeries series) {
+        double[] closes = series.closesArray();
+        double[] volumes = series.volumesArray();
+        int size = series.size();
+        double[] out = indicatorOutput.get();
+
+        if (OhlcvIndicators.bollingerBands(closes, size, 20, 2.0, out)) {
+            marketData.setBollingerMiddle(out[0]);
+            marketData.setBollingerUpper(out[1]);
+            marketData.setBollingerLower(out[2]);
+        }
+        marketData.setAtr(valueOrNull(OhlcvIndicators.averageTrueRange(closes, closes, closes, size, 14)));
+        if (OhlcvIndicators.stochastic(closes, closes, closes, size, 14, 3, out)) {
+            marketData.setStochasticK(out[0]);
+            marketData.setStochasticD(out[1]);
+        }
+        double obv = OhlcvIndicators.onBalanceVolume(closes, volumes, size);
+        marketData.setObv(valueOrNull(obv));
+        if (size > 21) {
+            marketData.setObvChange20d(valueOrNull(obv - OhlcvIndicators.onBalanceVolume(closes, volumes, size - 20)));
+        }
+        if (OhlcvIndicators.averageDirectionalIndex(closes, closes, closes, size, 14, out)) {
+            marketData.setAdx(out[0]);
+            marketData.setPlusDi(out[1]);
+            marketData.setMinusDi(out[2]);
+        }
+        marketData.setVwap20d(valueOrNull(OhlcvIndicators.volumeWeightedAveragePrice(closes, closes, closes, volumes, size, 20)));
+    }
+
+    private static Double valueOrNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
     /**
-     * Scheduled task to refresh cache for all holdings at 1:00 AM daily
+     * Scheduled task to refresh cache for all holdings at 1:00 AM daily, largest positions first.
+     * The adaptive refresh scheduler keeps entries fresh during the day; this run picks up
+     * the new daily close for every coin.
      */
     @Scheduled(cron = "0 0 1 * * *", zone = "Asia/Ho_Chi_Minh")
     public void refreshAllCaches() {
         System.out.println("[MarketDataCache] Starting scheduled cache refresh at 1:00 AM for all holdings");
 
         try {
-            List<Holding> holdings = loadHoldings();
-            int totalHoldings = holdings.size();
-            int successCount = 0;
-            int failCount = 0;
-
-            System.out.println("[MarketDataCache] Refreshing cache for " + totalHoldings + " holdings");
-
-            for (Holding holding : holdings) {
-                try {
-                    refreshCache(holding.getId());
-                    successCount++;
-
-                    // Add delay between API calls to respect rate limits
-                    Thread.sleep(1200); // 1.2 seconds between calls
-
-                } catch (Exception e) {
-                    failCount++;
-                    System.err.println("[MarketDataCache] Failed to refresh " + holding.getSymbol() +
-                        " (" + holding.getId() + "): " + e.getMessage());
+            List<String> coinGeckoIds = new ArrayList<>();
+            for (Holding holding : loadHoldings()) {
+                if (holding.getId() != null && !holding.getId().isEmpty() && !coinGeckoIds.contains(holding.getId())) {
+                    coinGeckoIds.add(holding.getId());
                 }
             }
+            coinGeckoIds.sort(Comparator.comparingDouble((String id) -> {
+                Double value = ttlPolicy.getPositionValue(id);
+                return value != null ? value : 0.0;
+            }).reversed());
 
-            System.out.println("[MarketDataCache] Cache refresh completed. Success: " + successCount +
-                ", Failed: " + failCount + ", Total: " + totalHoldings);
+            refreshCoins(coinGeckoIds);
 
         } catch (Exception e) {
             System.err.println("[MarketDataCache] Error during scheduled cache refresh: " + e.getMessage());
@@ -385,6 +916,133 @@ public class MarketDataCacheService {
         }
     }
 
+    /**
+     * Refresh the given coins: spot prices come from batched calls and the per-coin
+     * history endpoint is only hit for coins whose daily history is actually stale.
+     * Returns the number of coins refreshed.
+     */
+    public int refreshCoins(List<String> coinGeckoIds) throws IOException, InterruptedException {
+        return refreshCoins(coinGeckoIds, 1, null);
+    }
+
+    /**
+     * Refresh the given coins, building up to parallelism entries at once; outbound calls
+     * are still paced by the provider's rate limiter. Each coin is registered as an in-flight
+     * load, so concurrent getMarketData callers wait for it instead of fetching it again,
+     * and coins already being loaded elsewhere are waited for rather than fetched again.
+     * Entries are published as soon as they are built. onCoinDone, if given, is called
+     * once per coin with whether it succeeded.
+     */
+    public int refreshCoins(List<String> coinGeckoIds, int parallelism, BiConsumer<String, Boolean> onCoinDone)
+            throws IOException, InterruptedException {
+        int totalCoins = coinGeckoIds.size();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger historyFetches = new AtomicInteger();
+        AtomicInteger failCount = new AtomicInteger();
+        BiConsumer<String, Boolean> progress = onCoinDone != null ? onCoinDone : (id, ok) -> { };
+
+        System.out.println("[MarketDataCache] Refreshing cache for " + totalCoins + " coins");
+
+        Map<String, MarketData> spotPrices;
+        try {
+            spotPrices = fetchSpotPrices(coinGeckoIds);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            coinGeckoIds.forEach(id -> progress.accept(id, false));
+            throw e;
+        }
+
+        ExecutorService workers = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "market-data-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        List<Future<?>> pending = new ArrayList<>();
+        // Registered loads whose task has not started; a task claims its entry when it starts
+        ConcurrentHashMap<String, CompletableFuture<MarketData>> unstarted = new ConcurrentHashMap<>();
+
+        try {
+            for (String coinGeckoId : coinGeckoIds) {
+                MarketData marketData = spotPrices.get(coinGeckoId);
+                if (marketData == null) {
+                    failCount.incrementAndGet();
+                    progress.accept(coinGeckoId, false);
+                    continue;
+                }
+
+                CompletableFuture<MarketData> load = new CompletableFuture<>();
+                CompletableFuture<MarketData> existingLoad = inFlightLoads.putIfAbsent(coinGeckoId, load);
+                if (existingLoad != null) {
+                    // Someone else is already loading it; report its outcome once it finishes
+                    pending.add(existingLoad.whenComplete((data, error) ->
+                        progress.accept(coinGeckoId, error == null && data != null)));
+                    continue;
+                }
+                unstarted.put(coinGeckoId, load);
+
+                Runnable task = () -> {
+                    if (unstarted.remove(coinGeckoId) == null) {
+                        return; // Abandoned by the finally below
+                    }
+                    boolean ok = false;
+                    try {
+                        CachedMarketData existing = findPreviousEntry(coinGeckoId);
+                        if (existing == null || existing.isHistoryStale()) {
+                            historyFetches.incrementAndGet();
+                        }
+                        CachedMarketData entry = buildCacheEntry(coinGeckoId, marketData, existing);
+                        cache.put(coinGeckoId, entry);
+                        markDirty(coinGeckoId);
+                        load.complete(entry.getMarketData());
+                        successCount.incrementAndGet();
+                        ok = true;
+                    } catch (Exception e) {
+                        failCount.incrementAndGet();
+                        load.completeExceptionally(new RuntimeException("Failed to refresh market data for " + coinGeckoId, e));
+                        System.err.println("[MarketDataCache] Failed to refresh history for " + coinGeckoId + ": " + e.getMessage());
+                    } finally {
+                        inFlightLoads.remove(coinGeckoId, load);
+                        progress.accept(coinGeckoId, ok);
+                    }
+                };
+
+                if (workers != null) {
+                    pending.add(workers.submit(task));
+                } else {
+                    task.run();
+                }
+            }
+
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Failures are already logged where they ran, and counted for this run's own tasks
+                }
+            }
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            // Loads registered for tasks that never ran (interrupted or rejected) would otherwise
+            // never complete, leaving getMarketData callers for those coins waiting forever
+            for (String coinGeckoId : new ArrayList<>(unstarted.keySet())) {
+                CompletableFuture<MarketData> load = unstarted.remove(coinGeckoId);
+                if (load != null) {
+                    load.completeExceptionally(new RuntimeException("Refresh of " + coinGeckoId + " was abandoned"));
+                    inFlightLoads.remove(coinGeckoId, load);
+                    failCount.incrementAndGet();
+                    progress.accept(coinGeckoId, false);
+                }
+            }
+            // Persist everything refreshed in this run with a single flush
+            requestFlush();
+        }
+
+        System.out.println("[MarketDataCache] Cache refresh completed. Success: " + successCount.get() +
+            ", Failed: " + failCount.get() + ", History fetches: " + historyFetches.get() + ", Total: " + totalCoins);
+        return successCount.get();
+    }
+
     /**
      * Manual trigger for cache refresh (useful for testing)
      */
@@ -397,77 +1055,137 @@ public class MarketDataCacheService {
      * Get cache statistics
      */
     public String getCacheStats() {
-        cacheLock.lock();
-        try {
-            int totalEntries = cache.size();
-            int expiredEntries = 0;
-            int freshEntries = 0;
-
-            for (CachedMarketData cachedData : cache.values()) {
-                if (cachedData.isExpired(18)) {
-                    expiredEntries++;
-                } else {
-                    freshEntries++;
-                }
+        int totalEntries = cache.asMap().size();
+        int expiredEntries = 0;
+        int freshEntries = 0;
+
+        for (Map.Entry<String, CachedMarketData> entry : cache.asMap().entrySet()) {
+            if (entry.getValue().isExpiredAfterMinutes(ttlPolicy.getTtlMinutes(entry.getKey(), entry.getValue()))) {
+                expiredEntries++;
+            } else {
+                freshEntries++;
             }
+        }
 
-            return String.format("[MarketDataCache] Stats - Total: %d, Fresh: %d, Expired: %d",
-                totalEntries, freshEntries, expiredEntries);
-        } finally {
-            cacheLock.unlock();
+        return String.format("[MarketDataCache] Stats - Total: %d, Fresh: %d, Expired: %d, Loading: %d",
+            totalEntries, freshEntries, expiredEntries, inFlightLoads.size());
+    }
+
+    /**
+     * Size, hit-rate and eviction metrics of the bounded in-memory cache
+     */
+    public Map<String, Object> getCacheMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entries", cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            metrics.put("weightedSize", eviction.weightedSize().orElse(0));
+            metrics.put("maxWeight", eviction.getMaximum());
+        });
+        metrics.put("hitCount", stats.hitCount());
+        metrics.put("missCount", stats.missCount());
+        metrics.put("hitRate", Math.round(stats.hitRate() * 1000) / 1000.0);
+        metrics.put("evictionCount", stats.evictionCount());
+        metrics.put("evictionWeight", stats.evictionWeight());
+        metrics.put("storeReloads", storeReloads.get());
+        metrics.put("pendingEvictionWrites", evictedPending.size());
+        return metrics;
+    }
+
+    /**
+     * Every in-memory entry with its age, TTL and size, oldest first, for tuning TTLs.
+     * estimatedBytes counts the history columns (4 x 8 bytes per daily point) plus a
+     * fixed allowance for the rest of the entry.
+     */
+    public List<Map<String, Object>> getCacheEntries() {
+        List<Map.Entry<String, CachedMarketData>> entries = new ArrayList<>(cache.asMap().entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<String, CachedMarketData> entry) -> entry.getValue().getCacheTime()));
+
+        long maxStaleMinutes = TimeUnit.HOURS.toMinutes(marketDataConfig.getMaxStaleHours());
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, CachedMarketData> entry : entries) {
+            CachedMarketData cachedData = entry.getValue();
+            long ttlMinutes = ttlPolicy.getTtlMinutes(entry.getKey(), cachedData);
+            int historyPoints = historyLength(cachedData);
+            String state = !cachedData.isExpiredAfterMinutes(ttlMinutes) ? "fresh"
+                : !cachedData.isExpiredAfterMinutes(ttlMinutes + maxStaleMinutes) ? "stale" : "expired";
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", entry.getKey());
+            row.put("cachedAt", cachedData.getCacheTime().toString());
+            row.put("ageMinutes", Duration.between(cachedData.getCacheTime(), now).toMinutes());
+            row.put("ttlMinutes", ttlMinutes);
+            row.put("state", state);
+            row.put("historyTime", cachedData.getHistoryTime() != null ? cachedData.getHistoryTime().toString() : null);
+            row.put("historyStale", cachedData.isHistoryStale());
+            row.put("historyPoints", historyPoints);
+            row.put("weight", 1 + historyPoints);
+            row.put("estimatedBytes", ENTRY_OVERHEAD_BYTES + historyPoints * 32L);
+            row.put("dirty", dirtyKeys.contains(entry.getKey()));
+            rows.add(row);
         }
+        return rows;
     }
 
     /**
-     * Clear all cache entries and delete cache file
+     * Clear all cache entries and the on-disk store
      */
     public void clearCache() {
-        cacheLock.lock();
-        try {
-            int clearedCount = cache.size();
-            cache.clear();
-
-            // Delete cache file
-            File cacheFile = new File(CACHE_FILE_PATH);
-            if (cacheFile.exists()) {
-                cacheFile.delete();
-                System.out.println("[MarketDataCache] Cache file deleted");
+        int clearedCount = cache.asMap().size();
+        cache.invalidateAll();
+        dirtyKeys.clear();
+        evictedPending.clear();
+        removedKeys.clear();
+
+        // Clear the store on the persistence thread so it cannot race with a flush
+        persistenceExecutor.execute(() -> {
+            try {
+                marketDataStore.clear();
+                System.out.println("[MarketDataCache] Market data store cleared");
+            } catch (IOException e) {
+                System.err.println("[MarketDataCache] Error clearing market data store: " + e.getMessage());
             }
+        });
 
-            System.out.println("[MarketDataCache] Cleared " + clearedCount + " cache entries");
-        } finally {
-            cacheLock.unlock();
-        }
+        System.out.println("[MarketDataCache] Cleared " + clearedCount + " cache entries");
     }
 
     /**
-     * Remove expired cache entries and save to file
+     * Remove entries too old to be served even stale, from the cache and from evictions
+     * not yet written back, and mark them for persistence
      */
     public void cleanupExpiredEntries() {
-        cacheLock.lock();
-        try {
-            int initialSize = cache.size();
-            cache.entrySet().removeIf(entry -> entry.getValue().isExpired(12));
-            int removedCount = initialSize - cache.size();
-
-            if (removedCount > 0) {
-                System.out.println("[MarketDataCache] Cleaned up " + removedCount + " expired cache entries");
-                // Save to file after cleanup
-                saveCacheToFile();
+        Set<String> expiredKeys = new HashSet<>();
+        removeExpired(cache.asMap(), expiredKeys);
+        removeExpired(evictedPending, expiredKeys);
+
+        if (!expiredKeys.isEmpty()) {
+            System.out.println("[MarketDataCache] Cleaned up " + expiredKeys.size() + " expired cache entries");
+            removedKeys.addAll(expiredKeys);
+            expiredKeys.forEach(this::markDirty);
+        }
+    }
+
+    private void removeExpired(Map<String, CachedMarketData> entries, Set<String> expiredKeys) {
+        long maxStaleMinutes = TimeUnit.HOURS.toMinutes(marketDataConfig.getMaxStaleHours());
+        for (Map.Entry<String, CachedMarketData> entry : entries.entrySet()) {
+            long ttlMinutes = ttlPolicy.getTtlMinutes(entry.getKey(), entry.getValue());
+            if (entry.getValue().isExpiredAfterMinutes(ttlMinutes + maxStaleMinutes)
+                    && entries.remove(entry.getKey(), entry.getValue())) {
+                expiredKeys.add(entry.getKey());
             }
-        } finally {
-            cacheLock.unlock();
         }
     }
 
     /**
-     * Scheduled task to save cache every 30 minutes
+     * Scheduled safety-net flush every 30 minutes
      */
     @Scheduled(fixedRate = 30 * 60 * 1000) // 30 minutes in milliseconds
     public void scheduledCacheSave() {
-        if (!cache.isEmpty()) {
+        if (!dirtyKeys.isEmpty()) {
             System.out.println("[MarketDataCache] Running scheduled cache save");
-            saveCacheToFile();
+            requestFlush();
         }
     }
 
@@ -0,0 +1,136 @@
+package com.quat.cryptoNotifier.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation for the market data pipeline, published through Actuator
+ * (/actuator/metrics/market.data.*):
+ *
+ *   market.data.cache.requests{result=hit|stale|miss}   cache lookups by outcome
+ *   market.data.fetch{endpoint,outcome}                 provider call latency
+ *   market.data.download.bytes{endpoint}                response body bytes read
+ *   market.data.ratelimit.wait                          time spent waiting for a permit
+ *   market.data.persist.flush                           write-behind flush duration
+ *
+ * Endpoints are "price" (spot prices), "history" (recent daily history) and "range"
+ * (backfill ranges).
+ */
+@Component
+public class MarketDataMetrics {
+
+    public static final String ENDPOINT_PRICE = "price";
+    public static final String ENDPOINT_HISTORY = "history";
+    public static final String ENDPOINT_RANGE = "range";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> cacheRequests = new ConcurrentHashMap<>();
+    private final Map<String, Timer> fetchTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> downloadSummaries = new ConcurrentHashMap<>();
+    private Timer rateLimitWaitTimer;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void registerMeters() {
+        rateLimitWaitTimer = Timer.builder("market.data.ratelimit.wait")
+            .description("Time outbound calls waited for a rate limiter permit")
+            .publishPercentiles(PERCENTILES)
+            .register(meterRegistry);
+        flushTimer = Timer.builder("market.data.persist.flush")
+            .description("Duration of write-behind flushes to the market data store")
+            .publishPercentiles(PERCENTILES)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count a cache lookup: hit (fresh), stale (served while revalidating) or miss
+     */
+    public void recordCacheRequest(String result) {
+        cacheRequests.computeIfAbsent(result, key -> Counter.builder("market.data.cache.requests")
+            .description("Market data cache lookups by result")
+            .tag("result", key)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    public void recordFetch(String endpoint, boolean success, long elapsedNanos) {
+        String outcome = success ? "success" : "error";
+        fetchTimers.computeIfAbsent(endpoint + "/" + outcome, key -> Timer.builder("market.data.fetch")
+            .description("Market data provider call latency")
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .register(meterRegistry))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDownload(String endpoint, long bytes) {
+        downloadSummaries.computeIfAbsent(endpoint, key -> DistributionSummary.builder("market.data.download.bytes")
+            .description("Response body bytes read from the market data API")
+            .baseUnit("bytes")
+            .tag("endpoint", key)
+            .register(meterRegistry))
+            .record(bytes);
+    }
+
+    public void recordRateLimitWait(long waitNanos) {
+        rateLimitWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFlush(long elapsedNanos) {
+        flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time a provider call under the given endpoint, recording failures separately
+     */
+    public <T> T timeFetch(String endpoint, FetchCall<T> call) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.fetch();
+            success = true;
+            return result;
+        } finally {
+            recordFetch(endpoint, success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Size, hit/miss and eviction meters of the in-memory cache, plus a gauge per value
+     */
+    public void bindCache(Cache<?, ?> cache, Map<String, Supplier<Number>> gauges) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "market-data");
+        for (Map.Entry<String, Supplier<Number>> gauge : gauges.entrySet()) {
+            Supplier<Number> value = gauge.getValue();
+            Gauge.builder(gauge.getKey(), value, supplier -> supplier.get().doubleValue())
+                .description("Market data cache state")
+                // The supplier is only referenced here; a weak reference would let it be collected
+                .strongReference(true)
+                .register(meterRegistry);
+        }
+    }
+
+    public interface FetchCall<T> {
+        T fetch() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,50 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of raw market data for MarketDataCacheService. The active implementation is
+ * chosen by name with market-data.provider; caching, history merging and indicators
+ * stay in the cache service regardless of where the data comes from.
+ */
+public interface MarketDataProvider {
+
+    /**
+     * Name used to select this provider in application.properties
+     */
+    String getName();
+
+    /**
+     * Whether this provider serves current market data. Recorded or fixture sources
+     * return false; the hedged provider falls back to them only when every live source failed.
+     */
+    default boolean isLive() {
+        return true;
+    }
+
+    /**
+     * Spot price, 24h change, 24h volume and market cap for each coin.
+     * Coins the source does not know are left out of the returned map.
+     */
+    Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException;
+
+    /**
+     * Daily closes, volumes and market caps for the last N days, in timestamp order.
+     * May include more than one point for the current day.
+     */
+    PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException, InterruptedException;
+
+    /**
+     * Closes, volumes and market caps between two epoch seconds, in timestamp order, for
+     * backfilling long histories. Granularity is up to the source.
+     */
+    default PriceSeries fetchPriceHistoryRange(String coinGeckoId, long fromEpochSecond, long toEpochSecond)
+            throws IOException, InterruptedException {
+        throw new IOException("Provider " + getName() + " does not support history range queries");
+    }
+}
@@ -0,0 +1,189 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.Holdings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps held coins fresh ahead of their adaptive TTL. Each tick ranks every holding in a
+ * priority queue: coins already due come first, most important (position value and
+ * volatility) first among them; the rest follow by time to expiry. Due coins are then
+ * refreshed in one batch until the tick's share of the API rate budget is spent;
+ * anything left over stays due and is first in line next tick.
+ */
+@Service
+public class MarketDataRefreshScheduler {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataCacheService marketDataCacheService;
+
+    @Autowired
+    private MarketDataTtlPolicy ttlPolicy;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Coins per /simple/price request in the provider's batched spot call
+    private static final int SPOT_BATCH_SIZE = 50;
+
+    @Scheduled(fixedDelayString = "${market-data.refresh-interval-seconds:60}",
+        initialDelayString = "${market-data.refresh-interval-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void refreshDueEntries() {
+        if (!marketDataConfig.isBackgroundRefresh()) {
+            return;
+        }
+
+        try {
+            PriorityQueue<RefreshCandidate> queue = new PriorityQueue<>(buildSchedule());
+            int budget = getTickBudget();
+            int cost = 0;
+            int deferred = 0;
+            List<String> batch = new ArrayList<>();
+
+            while (!queue.isEmpty() && queue.peek().isDue()) {
+                RefreshCandidate candidate = queue.poll();
+                int spotCost = batch.size() % SPOT_BATCH_SIZE == 0 ? 1 : 0;
+                int historyCost = candidate.needsHistory ? 1 : 0;
+                if (cost + spotCost + historyCost > budget) {
+                    deferred++;
+                    continue; // A cheaper coin further down may still fit
+                }
+                cost += spotCost + historyCost;
+                batch.add(candidate.coinGeckoId);
+            }
+
+            if (batch.isEmpty()) {
+                if (deferred > 0) {
+                    System.out.println("[RefreshScheduler] " + deferred + " due coins deferred - tick budget of " + budget + " requests too small");
+                }
+                return;
+            }
+
+            System.out.println("[RefreshScheduler] Refreshing " + batch.size() + " due coins (~" + cost + " of " +
+                budget + " budgeted requests), " + deferred + " deferred to next tick");
+            marketDataCacheService.refreshCoins(batch);
+
+        } catch (Exception e) {
+            System.err.println("[RefreshScheduler] Background refresh failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Current schedule for diagnostics, in priority order
+     */
+    public List<Map<String, Object>> getSchedule() {
+        List<RefreshCandidate> candidates = buildSchedule();
+        candidates.sort(null);
+
+        List<Map<String, Object>> schedule = new ArrayList<>();
+        for (RefreshCandidate candidate : candidates) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", candidate.coinGeckoId);
+            row.put("positionValue", ttlPolicy.getPositionValue(candidate.coinGeckoId));
+            row.put("importance", Math.round(candidate.importance * 100) / 100.0);
+            row.put("ttlMinutes", candidate.ttlMinutes);
+            row.put("dueInMinutes", candidate.dueInMinutes);
+            row.put("needsHistory", candidate.needsHistory);
+            schedule.add(row);
+        }
+        return schedule;
+    }
+
+    /**
+     * Requests the scheduler may spend per tick, a fraction of the rate limiter's quota
+     */
+    private int getTickBudget() {
+        double perMinute = marketDataConfig.getRequestsPerMinute() * marketDataConfig.getRefreshBudgetFraction();
+        return Math.max(1, (int) (perMinute * marketDataConfig.getRefreshIntervalSeconds() / 60));
+    }
+
+    private List<RefreshCandidate> buildSchedule() {
+        List<Holding> holdings = loadHoldings();
+
+        // Refresh position values first so TTLs reflect current prices
+        Map<String, Double> prices = new HashMap<>();
+        for (Holding holding : holdings) {
+            MarketDataCacheService.CachedMarketData entry = holding.getId() != null
+                ? marketDataCacheService.getCachedEntry(holding.getId()) : null;
+            if (entry != null && entry.getMarketData() != null) {
+                prices.put(holding.getId(), entry.getMarketData().getCurrentPrice());
+            }
+        }
+        ttlPolicy.updatePositions(holdings, prices);
+
+        Map<String, RefreshCandidate> candidates = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Holding holding : holdings) {
+            String coinGeckoId = holding.getId();
+            if (coinGeckoId == null || coinGeckoId.isEmpty() || candidates.containsKey(coinGeckoId)) {
+                continue;
+            }
+            MarketDataCacheService.CachedMarketData entry = marketDataCacheService.getCachedEntry(coinGeckoId);
+            long ttlMinutes = ttlPolicy.getTtlMinutes(coinGeckoId, entry);
+            long dueInMinutes = entry == null || entry.getCacheTime() == null ? 0
+                : ttlMinutes - Duration.between(entry.getCacheTime(), now).toMinutes();
+            candidates.put(coinGeckoId, new RefreshCandidate(coinGeckoId, ttlPolicy.getImportance(coinGeckoId, entry),
+                ttlMinutes, dueInMinutes, entry == null || entry.isHistoryStale()));
+        }
+        return new ArrayList<>(candidates.values());
+    }
+
+    private List<Holding> loadHoldings() {
+        try {
+            ClassPathResource resource = new ClassPathResource("holdings.json");
+            Holdings holdings = objectMapper.readValue(resource.getInputStream(), Holdings.class);
+            return holdings.getCryptos();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load holdings from holdings.json", e);
+        }
+    }
+
+    // Due coins first by importance, then everything else by time to expiry
+    private static class RefreshCandidate implements Comparable<RefreshCandidate> {
+        private static final Comparator<RefreshCandidate> ORDER = Comparator
+            .comparing((RefreshCandidate c) -> !c.isDue())
+            .thenComparing((a, b) -> a.isDue() ? Double.compare(b.importance, a.importance) : 0)
+            .thenComparingLong(c -> c.dueInMinutes);
+
+        private final String coinGeckoId;
+        private final double importance;
+        private final long ttlMinutes;
+        private final long dueInMinutes;
+        private final boolean needsHistory;
+
+        RefreshCandidate(String coinGeckoId, double importance, long ttlMinutes, long dueInMinutes, boolean needsHistory) {
+            this.coinGeckoId = coinGeckoId;
+            this.importance = importance;
+            this.ttlMinutes = ttlMinutes;
+            this.dueInMinutes = dueInMinutes;
+            this.needsHistory = needsHistory;
+        }
+
+        boolean isDue() {
+            return dueInMinutes <= 0;
+        }
+
+        @Override
+        public int compareTo(RefreshCandidate other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
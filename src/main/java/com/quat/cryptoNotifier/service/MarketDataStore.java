@@ -0,0 +1,379 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.service.MarketDataCacheService.CachedMarketData;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented on-disk store for cached market data.
+ *
+ * Every update appends one record to the active segment file, so the cost of a write
+ * is proportional to the entry rather than the whole cache. An in-memory index maps
+ * each coin id to the location of its latest record; reads go straight to that offset.
+ * Segments roll over at a size limit and are compacted once most of their bytes are
+ * superseded. On startup the segments are scanned in order to rebuild the index, and a
+ * torn record at the tail of a segment (crash mid-write) is truncated away.
+ *
+ * Record layout: [int bodyLength][int crc32(body)][body], where
+ * body = [byte op][short keyLength][key utf-8][payload json].
+ */
+@Service
+public class MarketDataStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    private final ObjectMapper objectMapper;
+
+    // All fields below are guarded by this
+    private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+    private final Map<String, RecordPointer> index = new LinkedHashMap<>();
+    private long activeSegmentId;
+    private long liveBytes;
+    private long totalBytes;
+
+    private static class RecordPointer {
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+
+        RecordPointer(long segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // The stale flag describes how a read was served, not the data, so it stays out of records
+    @JsonIgnoreProperties({"stale"})
+    private abstract static class PersistedMarketDataMixin {
+    }
+
+    public MarketDataStore() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.addMixIn(MarketData.class, PersistedMarketDataMixin.class);
+    }
+
+    /**
+     * Open existing segments and rebuild the index
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path storeDir = Paths.get(marketDataConfig.getStoreDir());
+        Files.createDirectories(storeDir);
+
+        File[] segmentFiles = storeDir.toFile().listFiles((dir, name) ->
+            name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segmentFiles != null) {
+            for (File segmentFile : segmentFiles) {
+                String name = segmentFile.getName();
+                long segmentId = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(segmentId, openSegment(segmentId));
+            }
+        }
+
+        for (Map.Entry<Long, FileChannel> segment : segments.entrySet()) {
+            replaySegment(segment.getKey(), segment.getValue());
+        }
+
+        if (segments.isEmpty()) {
+            activeSegmentId = 1;
+            segments.put(activeSegmentId, openSegment(activeSegmentId));
+        } else {
+            activeSegmentId = segments.lastKey();
+        }
+
+        System.out.println("[MarketDataStore] Opened " + segments.size() + " segment(s) in " + storeDir +
+            " - " + index.size() + " entries, " + liveBytes + "/" + totalBytes + " live bytes");
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (FileChannel channel : segments.values()) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("[MarketDataStore] Error closing segment: " + e.getMessage());
+            }
+        }
+        segments.clear();
+    }
+
+    /**
+     * Append the latest version of an entry
+     */
+    public void put(String coinGeckoId, CachedMarketData entry) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(entry);
+        appendRecord(OP_PUT, coinGeckoId, payload);
+    }
+
+    /**
+     * Append a tombstone for an entry
+     */
+    public void delete(String coinGeckoId) throws IOException {
+        synchronized (this) {
+            if (!index.containsKey(coinGeckoId)) {
+                return;
+            }
+        }
+        appendRecord(OP_DELETE, coinGeckoId, new byte[0]);
+    }
+
+    /**
+     * Read the latest version of an entry, or null if the store has none
+     */
+    public CachedMarketData get(String coinGeckoId) throws IOException {
+        byte[] body;
+        int keyLength;
+        synchronized (this) {
+            RecordPointer pointer = index.get(coinGeckoId);
+            if (pointer == null) {
+                return null;
+            }
+            ByteBuffer record = readFully(segments.get(pointer.segmentId), pointer.offset, pointer.length);
+            body = new byte[pointer.length - HEADER_BYTES];
+            record.position(HEADER_BYTES);
+            record.get(body);
+            keyLength = ByteBuffer.wrap(body, 1, 2).getShort() & 0xFFFF;
+        }
+        int payloadOffset = 3 + keyLength;
+        return objectMapper.readValue(body, payloadOffset, body.length - payloadOffset, CachedMarketData.class);
+    }
+
+    public synchronized Set<String> keys() {
+        return new HashSet<>(index.keySet());
+    }
+
+    public synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Force appended records to disk
+     */
+    public synchronized void sync() throws IOException {
+        FileChannel active = segments.get(activeSegmentId);
+        if (active != null) {
+            active.force(false);
+        }
+    }
+
+    /**
+     * Rewrite live records into fresh segments once superseded records dominate the store
+     */
+    public synchronized void compactIfNeeded() throws IOException {
+        long garbageBytes = totalBytes - liveBytes;
+        if (segments.size() < 2 || garbageBytes < marketDataConfig.getStoreSegmentMaxBytes() / 2
+                || garbageBytes < totalBytes * marketDataConfig.getStoreCompactionGarbageRatio()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        List<Long> oldSegmentIds = new ArrayList<>(segments.keySet());
+        long previousTotal = totalBytes;
+
+        rollSegment();
+        totalBytes = 0;
+        liveBytes = 0;
+
+        // Copy each live record verbatim; no re-serialization needed
+        for (Map.Entry<String, RecordPointer> entry : new ArrayList<>(index.entrySet())) {
+            RecordPointer pointer = entry.getValue();
+            ByteBuffer record = readFully(segments.get(pointer.segmentId), pointer.offset, pointer.length);
+            if (segments.get(activeSegmentId).size() >= marketDataConfig.getStoreSegmentMaxBytes()) {
+                rollSegment();
+            }
+            entry.setValue(writeRecord(record, pointer.length));
+            liveBytes += pointer.length;
+        }
+        sync();
+
+        for (Long segmentId : oldSegmentIds) {
+            FileChannel channel = segments.remove(segmentId);
+            channel.close();
+            Files.deleteIfExists(segmentPath(segmentId));
+        }
+
+        System.out.println("[MarketDataStore] Compacted " + oldSegmentIds.size() + " segment(s): " +
+            previousTotal + " -> " + totalBytes + " bytes in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Drop every segment and start over with an empty store
+     */
+    public synchronized void clear() throws IOException {
+        for (Map.Entry<Long, FileChannel> segment : segments.entrySet()) {
+            segment.getValue().close();
+            Files.deleteIfExists(segmentPath(segment.getKey()));
+        }
+        segments.clear();
+        index.clear();
+        liveBytes = 0;
+        totalBytes = 0;
+        activeSegmentId++;
+        segments.put(activeSegmentId, openSegment(activeSegmentId));
+    }
+
+    /**
+     * Store statistics for diagnostics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", index.size());
+        stats.put("segments", segments.size());
+        stats.put("liveBytes", liveBytes);
+        stats.put("totalBytes", totalBytes);
+        return stats;
+    }
+
+    private void appendRecord(byte op, String coinGeckoId, byte[] payload) throws IOException {
+        byte[] key = coinGeckoId.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + 2 + key.length + payload.length;
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength);
+        record.putInt(0); // CRC placeholder
+        record.put(op);
+        record.putShort((short) key.length);
+        record.put(key);
+        record.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        synchronized (this) {
+            if (segments.get(activeSegmentId).size() >= marketDataConfig.getStoreSegmentMaxBytes()) {
+                rollSegment();
+            }
+            RecordPointer pointer = writeRecord(record, record.remaining());
+            applyToIndex(op, coinGeckoId, pointer);
+        }
+    }
+
+    private RecordPointer writeRecord(ByteBuffer record, int length) throws IOException {
+        FileChannel active = segments.get(activeSegmentId);
+        long offset = active.size();
+        record.position(0).limit(length);
+        while (record.hasRemaining()) {
+            active.write(record, offset + record.position());
+        }
+        totalBytes += length;
+        return new RecordPointer(activeSegmentId, offset, length);
+    }
+
+    private void applyToIndex(byte op, String coinGeckoId, RecordPointer pointer) {
+        RecordPointer previous = op == OP_PUT ? index.put(coinGeckoId, pointer) : index.remove(coinGeckoId);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        if (op == OP_PUT) {
+            liveBytes += pointer.length;
+        }
+    }
+
+    private void replaySegment(long segmentId, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, position, header);
+            int bodyLength = header.getInt(0);
+            int expectedCrc = header.getInt(4);
+            if (bodyLength < 3 || position + HEADER_BYTES + bodyLength > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(channel, position + HEADER_BYTES, body);
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, bodyLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            byte op = body.get(0);
+            int keyLength = body.getShort(1) & 0xFFFF;
+            String coinGeckoId = new String(body.array(), 3, keyLength, StandardCharsets.UTF_8);
+            int recordLength = HEADER_BYTES + bodyLength;
+            totalBytes += recordLength;
+            applyToIndex(op, coinGeckoId, new RecordPointer(segmentId, position, recordLength));
+            position += recordLength;
+        }
+
+        if (position < size) {
+            System.err.println("[MarketDataStore] Truncating torn tail of segment " + segmentId +
+                " at offset " + position + " (" + (size - position) + " bytes)");
+            channel.truncate(position);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        FileChannel previous = segments.get(activeSegmentId);
+        if (previous != null) {
+            previous.force(false);
+        }
+        activeSegmentId++;
+        segments.put(activeSegmentId, openSegment(activeSegmentId));
+    }
+
+    private FileChannel openSegment(long segmentId) throws IOException {
+        return FileChannel.open(segmentPath(segmentId),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long segmentId) {
+        return Paths.get(marketDataConfig.getStoreDir(), String.format("%s%06d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, offset, buffer);
+        return buffer;
+    }
+
+    private static void readFully(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment at offset " + (offset + buffer.position()));
+            }
+        }
+    }
+}
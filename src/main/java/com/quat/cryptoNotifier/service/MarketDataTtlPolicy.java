@@ -0,0 +1,124 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-coin cache TTL. A coin's importance combines its share of the portfolio
+ * (relative to an equal-weight position) with its recent daily volatility (relative
+ * to a typical coin); an average coin gets the default TTL, more important coins
+ * proportionally less and less important ones more, within the min/max bounds.
+ * Dust positions always get the maximum TTL and per-coin overrides win over all.
+ */
+@Service
+public class MarketDataTtlPolicy {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    // Typical daily close-to-close volatility of a large-cap coin
+    private static final double REFERENCE_DAILY_VOLATILITY = 0.03;
+    private static final int VOLATILITY_WINDOW_DAYS = 30;
+    private static final double MIN_IMPORTANCE = 0.1;
+
+    // Latest position values by coin id, refreshed by the refresh scheduler
+    private volatile Map<String, Double> positionValues = Collections.emptyMap();
+
+    /**
+     * Recompute position values (holdings x latest cached price)
+     */
+    public void updatePositions(List<Holding> holdings, Map<String, Double> pricesById) {
+        Map<String, Double> values = new HashMap<>();
+        for (Holding holding : holdings) {
+            Double price = pricesById.get(holding.getId());
+            if (holding.getId() != null && price != null) {
+                values.merge(holding.getId(), holding.getHoldings() * price, Double::sum);
+            }
+        }
+        this.positionValues = values;
+    }
+
+    public long getTtlMinutes(String coinGeckoId, MarketDataCacheService.CachedMarketData entry) {
+        Integer override = marketDataConfig.getTtlOverrideMinutes().get(coinGeckoId);
+        if (override != null) {
+            return override;
+        }
+        long defaultTtl = TimeUnit.HOURS.toMinutes(marketDataConfig.getDefaultTtlHours());
+        if (!marketDataConfig.isAdaptiveTtl()) {
+            return defaultTtl;
+        }
+
+        long maxTtl = TimeUnit.HOURS.toMinutes(marketDataConfig.getMaxTtlHours());
+        Double positionValue = positionValues.get(coinGeckoId);
+        if (positionValue != null && positionValue < marketDataConfig.getDustPositionUsd()) {
+            return maxTtl;
+        }
+
+        long ttl = Math.round(defaultTtl / getImportance(coinGeckoId, entry));
+        return Math.max(marketDataConfig.getMinTtlMinutes(), Math.min(maxTtl, ttl));
+    }
+
+    /**
+     * 1.0 for an equal-weight position at typical volatility; unknown inputs count as average
+     */
+    public double getImportance(String coinGeckoId, MarketDataCacheService.CachedMarketData entry) {
+        double weightScore = 1.0;
+        Map<String, Double> values = positionValues;
+        Double positionValue = values.get(coinGeckoId);
+        double totalValue = values.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (positionValue != null && totalValue > 0) {
+            weightScore = positionValue / (totalValue / values.size());
+        }
+
+        double volatilityScore = 1.0;
+        double volatility = getDailyVolatility(entry);
+        if (!Double.isNaN(volatility)) {
+            volatilityScore = volatility / REFERENCE_DAILY_VOLATILITY;
+        }
+
+        return Math.max(MIN_IMPORTANCE, 0.5 * weightScore + 0.5 * volatilityScore);
+    }
+
+    public Double getPositionValue(String coinGeckoId) {
+        return positionValues.get(coinGeckoId);
+    }
+
+    /**
+     * Standard deviation of daily log returns over the recent window, NaN if there is too little history
+     */
+    public double getDailyVolatility(MarketDataCacheService.CachedMarketData entry) {
+        PriceSeries series = entry != null && entry.getMarketData() != null ? entry.getMarketData().getPriceSeries() : null;
+        if (series == null || series.size() < 11) {
+            return Double.NaN;
+        }
+
+        double[] closes = series.closesArray();
+        int end = series.size();
+        int start = Math.max(1, end - VOLATILITY_WINDOW_DAYS);
+        double sum = 0;
+        double sumSquares = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (closes[i] > 0 && closes[i - 1] > 0) {
+                double logReturn = Math.log(closes[i] / closes[i - 1]);
+                sum += logReturn;
+                sumSquares += logReturn * logReturn;
+                count++;
+            }
+        }
+        if (count < 10) {
+            return Double.NaN;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, sumSquares / count - mean * mean));
+    }
+}
@@ -0,0 +1,33 @@
+package com.quat.cryptoNotifier.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports market data warm-up progress under /actuator/health as "marketDataWarmup".
+ * While warming up the status is WARMING_UP, which maps to HTTP 200, so the instance
+ * stays routable and requests are served from whatever is already cached. A failed
+ * warm-up reports UP with the error, since on-demand loads still work.
+ */
+@Component
+public class MarketDataWarmupHealthIndicator implements HealthIndicator {
+
+    private static final Status WARMING_UP = new Status("WARMING_UP", "Market data cache warm-up in progress");
+
+    @Autowired
+    private MarketDataWarmupService marketDataWarmupService;
+
+    @Override
+    public Health health() {
+        switch (marketDataWarmupService.getState()) {
+            case PENDING:
+            case RUNNING:
+                return Health.status(WARMING_UP).withDetails(marketDataWarmupService.getProgress()).build();
+            default:
+                return Health.up().withDetails(marketDataWarmupService.getProgress()).build();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.Holdings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background warm-up of the market data cache after startup. Once the application is
+ * ready (web server already accepting requests), every held coin whose cache entry is
+ * missing, expired or has stale daily history is refreshed on a separate thread,
+ * several coins at a time within the shared rate limit. Requests arriving meanwhile are
+ * served from the cache or join the warm-up load for their coin.
+ */
+@Service
+public class MarketDataWarmupService {
+
+    public enum State { PENDING, RUNNING, COMPLETED, FAILED, DISABLED }
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private MarketDataCacheService marketDataCacheService;
+
+    @Autowired
+    private MarketDataTtlPolicy ttlPolicy;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile State state = State.PENDING;
+    private volatile int totalCoins;
+    private final AtomicInteger completedCoins = new AtomicInteger();
+    private final AtomicInteger failedCoins = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!marketDataConfig.isWarmupEnabled()) {
+            state = State.DISABLED;
+            return;
+        }
+        Thread warmupThread = new Thread(this::warmUp, "market-data-warmup");
+        warmupThread.setDaemon(true);
+        warmupThread.start();
+    }
+
+    private void warmUp() {
+        state = State.RUNNING;
+        startedAt = LocalDateTime.now();
+        try {
+            List<String> coinGeckoIds = findCoinsNeedingRefresh();
+            totalCoins = coinGeckoIds.size();
+            System.out.println("[MarketDataWarmup] Warming up " + totalCoins + " coins with parallelism " +
+                marketDataConfig.getWarmupParallelism());
+
+            if (!coinGeckoIds.isEmpty()) {
+                marketDataCacheService.refreshCoins(coinGeckoIds, marketDataConfig.getWarmupParallelism(), (id, ok) -> {
+                    completedCoins.incrementAndGet();
+                    if (!ok) {
+                        failedCoins.incrementAndGet();
+                    }
+                });
+            }
+
+            state = State.COMPLETED;
+            System.out.println("[MarketDataWarmup] Warm-up completed: " + (completedCoins.get() - failedCoins.get()) +
+                "/" + totalCoins + " coins refreshed in " + Duration.between(startedAt, LocalDateTime.now()).getSeconds() + "s");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            state = State.FAILED;
+            System.err.println("[MarketDataWarmup] Warm-up failed: " + e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Held coins with no usable cache entry: missing, past their TTL, or with stale daily history
+     */
+    private List<String> findCoinsNeedingRefresh() {
+        List<String> coinGeckoIds = new ArrayList<>();
+        for (Holding holding : loadHoldings()) {
+            String coinGeckoId = holding.getId();
+            if (coinGeckoId == null || coinGeckoId.isEmpty() || coinGeckoIds.contains(coinGeckoId)) {
+                continue;
+            }
+            MarketDataCacheService.CachedMarketData entry = marketDataCacheService.getCachedEntry(coinGeckoId);
+            if (entry == null || entry.isHistoryStale()
+                    || entry.isExpiredAfterMinutes(ttlPolicy.getTtlMinutes(coinGeckoId, entry))) {
+                coinGeckoIds.add(coinGeckoId);
+            }
+        }
+        return coinGeckoIds;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Warm-up progress for diagnostics and the health indicator
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        int total = totalCoins;
+        int completed = completedCoins.get();
+        progress.put("state", state);
+        progress.put("totalCoins", total);
+        progress.put("completedCoins", completed);
+        progress.put("failedCoins", failedCoins.get());
+        progress.put("percentComplete", total > 0 ? completed * 100 / total : (state == State.COMPLETED ? 100 : 0));
+        if (startedAt != null) {
+            progress.put("startedAt", startedAt.toString());
+        }
+        if (finishedAt != null) {
+            progress.put("finishedAt", finishedAt.toString());
+        }
+        if (lastError != null) {
+            progress.put("error", lastError);
+        }
+        return progress;
+    }
+
+    private List<Holding> loadHoldings() {
+        try {
+            ClassPathResource resource = new ClassPathResource("holdings.json");
+            Holdings holdings = objectMapper.readValue(resource.getInputStream(), Holdings.class);
+            return holdings.getCryptos();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load holdings from holdings.json", e);
+        }
+    }
+}
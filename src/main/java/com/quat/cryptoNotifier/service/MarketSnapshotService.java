@@ -0,0 +1,86 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.Holding;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds the MarketSnapshot for an advisory run: one cache lookup per distinct coin,
+ * done in parallel, instead of each report builder looking every holding up again
+ */
+@Service
+public class MarketSnapshotService {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    @Autowired
+    private DataProviderService dataProviderService;
+
+    private ExecutorService snapshotExecutor;
+
+    @PostConstruct
+    public void initialize() {
+        snapshotExecutor = Executors.newFixedThreadPool(Math.max(1, marketDataConfig.getSnapshotParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "market-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+    }
+
+    public MarketSnapshot createSnapshot(List<Holding> holdings) {
+        long start = System.currentTimeMillis();
+        Map<String, CompletableFuture<MarketData>> lookups = new LinkedHashMap<>();
+        for (Holding holding : holdings) {
+            String coinGeckoId = holding.getId();
+            if (coinGeckoId != null && !coinGeckoId.isEmpty() && !lookups.containsKey(coinGeckoId)) {
+                lookups.put(coinGeckoId, CompletableFuture.supplyAsync(
+                    () -> dataProviderService.getMarketData(coinGeckoId), snapshotExecutor));
+            }
+        }
+
+        Map<String, MarketData> marketData = new LinkedHashMap<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<MarketData>> lookup : lookups.entrySet()) {
+            try {
+                MarketData data = lookup.getValue().get();
+                if (data != null) {
+                    marketData.put(lookup.getKey(), data);
+                } else {
+                    failures.put(lookup.getKey(), "no data returned");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while building market snapshot", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failures.put(lookup.getKey(), cause.getMessage());
+            }
+        }
+
+        MarketSnapshot snapshot = new MarketSnapshot(marketData, failures);
+        System.out.println("[MarketSnapshot] Captured " + snapshot.size() + " coins in " +
+            (System.currentTimeMillis() - start) + "ms" +
+            (failures.isEmpty() ? "" : ", unavailable: " + new ArrayList<>(failures.keySet())));
+        return snapshot;
+    }
+}
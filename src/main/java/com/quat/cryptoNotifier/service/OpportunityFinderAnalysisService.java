@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -33,9 +34,6 @@ public class OpportunityFinderAnalysisService {
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
-    @Autowired
-    private DataProviderService dataProviderService;
-
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -48,7 +46,7 @@ public class OpportunityFinderAnalysisService {
      * - Exit/reduction recommendations
      * - Actionable investment plan
      */
-    public String buildOpportunityFinderPrompt(List<Holding> holdings) {
+    public String buildOpportunityFinderPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("This analysis is based on my overall investment strategy and current portfolio holdings.\n\n");
         prompt.append(investmentStrategyService.getCompleteInvestmentStrategySection());
@@ -76,7 +74,7 @@ public class OpportunityFinderAnalysisService {
             double currentValue = 0;
 
             try {
-                marketData = dataProviderService.getMarketData(holding.getId());
+                marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     currentPrice = marketData.getCurrentPrice();
                     currentValue = holding.getHoldings() * currentPrice;
@@ -115,7 +113,7 @@ public class OpportunityFinderAnalysisService {
             } else {
                 // Get market data for cryptocurrencies
                 try {
-                    MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                    MarketData marketData = snapshot.getMarketData(holding.getId());
                     if (marketData != null) {
                         currentPrice = marketData.getCurrentPrice();
                         currentValue = holding.getHoldings() * currentPrice;
@@ -318,6 +316,10 @@ public class OpportunityFinderAnalysisService {
         if (marketData.getMacd() != null && marketData.getMacdSignal() != null) {
             String macdStatus = marketData.getMacd() > marketData.getMacdSignal() ? "Bullish" : "Bearish";
             analysis.append(String.format("MACD: %s", macdStatus));
+            if (marketData.getMacdCrossover() != null) {
+                analysis.append(String.format(" (%s crossover %dd ago)",
+                    marketData.getMacdCrossover().toLowerCase(), marketData.getMacdCrossoverDaysAgo()));
+            }
         }
 
         return analysis.length() > 0 ? analysis.toString() : "Limited technical data available";
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -19,7 +20,7 @@ public class PortfolioHealthCheckAnalysisService {
     private InvestmentStrategyService investmentStrategyService;
 
     @Autowired
-    private DataProviderService dataProviderService;
+    private CorrelationService correlationService;
 
     private final ObjectMapper objectMapper;
 
@@ -32,7 +33,7 @@ public class PortfolioHealthCheckAnalysisService {
      * @param holdings List of portfolio holdings
      * @return Formatted prompt string for portfolio health analysis
      */
-    public String buildPortfolioHealthCheckPrompt(List<Holding> holdings) {
+    public String buildPortfolioHealthCheckPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Portfolio Health Check Prompt\n");
         prompt.append("This analysis is based on my overall investment strategy and current portfolio holdings.\n\n");
@@ -61,7 +62,7 @@ public class PortfolioHealthCheckAnalysisService {
             double currentValue = 0;
 
             try {
-                marketData = dataProviderService.getMarketData(holding.getId());
+                marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     currentPrice = marketData.getCurrentPrice();
                     currentValue = holding.getHoldings() * currentPrice;
@@ -100,7 +101,7 @@ public class PortfolioHealthCheckAnalysisService {
             } else {
                 // Get market data for cryptocurrencies
                 try {
-                    MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                    MarketData marketData = snapshot.getMarketData(holding.getId());
                     if (marketData != null) {
                         currentPrice = marketData.getCurrentPrice();
                         currentValue = holding.getHoldings() * currentPrice;
@@ -162,10 +163,13 @@ public class PortfolioHealthCheckAnalysisService {
         prompt.append(String.format("Total Profit/Loss: $%.2f (%.2f%%)\n", totalProfitLoss, totalProfitLossPercentage));
         prompt.append("\n");
 
+        // Measured return correlations back the correlation and concentration assessment
+        prompt.append(correlationService.getCorrelationSection(holdings, snapshot));
+
         // Add context and analysis framework
         prompt.append("--- Analysis Framework ---\n");
         prompt.append("For weight analysis:\n");
-        prompt.append("- Consider market cap, risk level, and correlation with other holdings\n");
+        prompt.append("- Consider market cap, risk level, and the measured return correlations with other holdings\n");
         prompt.append("- Identify concentrations > 15% in single assets or > 30% in correlated sectors\n");
         prompt.append("- Suggest optimal weightings based on risk-adjusted returns\n\n");
         
@@ -531,6 +535,10 @@ public class PortfolioHealthCheckAnalysisService {
         if (marketData.getMacd() != null && marketData.getMacdSignal() != null) {
             String macdStatus = marketData.getMacd() > marketData.getMacdSignal() ? "Bullish" : "Bearish";
             analysis.append(String.format("MACD: %s", macdStatus));
+            if (marketData.getMacdCrossover() != null) {
+                analysis.append(String.format(" (%s crossover %dd ago)",
+                    marketData.getMacdCrossover().toLowerCase(), marketData.getMacdCrossoverDaysAgo()));
+            }
         }
 
         return analysis.length() > 0 ? analysis.toString() : "Limited technical data available";
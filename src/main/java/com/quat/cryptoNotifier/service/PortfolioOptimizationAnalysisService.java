@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -34,9 +35,6 @@ public class PortfolioOptimizationAnalysisService {
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
-    @Autowired
-    private DataProviderService dataProviderService;
-
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -46,7 +44,7 @@ public class PortfolioOptimizationAnalysisService {
      * risk profile, balance between upside and downside potential, weight distribution,
      * and provide actionable rebalancing recommendations along with missing assets analysis.
      */
-     public String buildPortfolioOptimizationPrompt(List<Holding> holdings) {
+     public String buildPortfolioOptimizationPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("🔍 Portfolio Optimization Analysis Prompt\n");
         prompt.append("This analysis is based on my overall investment strategy and current portfolio holdings.\n\n");
@@ -82,7 +80,7 @@ public class PortfolioOptimizationAnalysisService {
             double currentValue = 0;
 
             try {
-                marketData = dataProviderService.getMarketData(holding.getId());
+                marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     currentPrice = marketData.getCurrentPrice();
                     currentValue = holding.getHoldings() * currentPrice;
@@ -121,7 +119,7 @@ public class PortfolioOptimizationAnalysisService {
             } else {
                 // Get market data for cryptocurrencies
                 try {
-                    MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                    MarketData marketData = snapshot.getMarketData(holding.getId());
                     if (marketData != null) {
                         currentPrice = marketData.getCurrentPrice();
                         currentValue = holding.getHoldings() * currentPrice;
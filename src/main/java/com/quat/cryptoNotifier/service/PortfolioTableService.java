@@ -2,6 +2,7 @@ package com.quat.cryptoNotifier.service;
 
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,16 +28,21 @@ public class PortfolioTableService {
     
     // Currency conversion rates
     private static final double USD_TO_VND = 24000.0; // Approximate rate
-    
+
+    // A MACD crossover this recent still counts as a trend signal
+    private static final int FRESH_CROSSOVER_DAYS = 3;
+
     @Autowired
-    private DataProviderService dataProviderService;
+    private CorrelationService correlationService;
+    
     /**
      * Generates comprehensive portfolio table data with enhanced features.
      * 
      * @param holdings List of portfolio holdings
+     * @param snapshot Market data captured for this advisory run
      * @return Map containing portfolio data with enhanced formatting and analysis
      */
-    public Map<String, Object> generatePortfolioTable(List<Holding> holdings) {
+    public Map<String, Object> generatePortfolioTable(List<Holding> holdings, MarketSnapshot snapshot) {
         Map<String, Object> portfolioData = new HashMap<>();
         List<Map<String, Object>> portfolioRows = new ArrayList<>();
         
@@ -58,7 +64,7 @@ public class PortfolioTableService {
             // Process each holding
             for (Holding holding : holdings) {
                 Map<String, Object> row = processHolding(holding, totalInitialValue, sectorAllocations, 
-                                                       sectorProfitLoss, smallPositions);
+                                                       sectorProfitLoss, smallPositions, snapshot);
                 if (row != null) {
                     portfolioRows.add(row);
                     
@@ -76,6 +82,7 @@ public class PortfolioTableService {
 
             portfolioData.put("portfolioRows", portfolioRows);
             portfolioData.put("summary", summary);
+            portfolioData.put("correlations", correlationService.analyze(holdings, snapshot));
             portfolioData.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
 
         } catch (Exception e) {
@@ -92,12 +99,13 @@ public class PortfolioTableService {
     private Map<String, Object> processHolding(Holding holding, double totalInitialValue,
                                              Map<String, Double> sectorAllocations,
                                              Map<String, Double> sectorProfitLoss,
-                                             List<Map<String, Object>> smallPositions) {
+                                             List<Map<String, Object>> smallPositions,
+                                             MarketSnapshot snapshot) {
         try {
             Map<String, Object> row = new HashMap<>();
 
             // Get current market data
-            MarketData marketData = dataProviderService.getMarketData(holding.getId());
+            MarketData marketData = snapshot.getMarketData(holding.getId());
             double currentPrice = marketData != null ? marketData.getCurrentPrice() : 0;
 
             // Basic holding information with numeric values for Thymeleaf formatting
@@ -190,6 +198,10 @@ public class PortfolioTableService {
             
             row.put("rsi", rsi != null ? rsi : null);
             row.put("macd", macd != null ? macd : null);
+            row.put("macdSignal", marketData.getMacdSignal());
+            row.put("macdHistogram", marketData.getMacdHistogram());
+            row.put("macdCrossover", marketData.getMacdCrossover());
+            row.put("macdCrossoverDaysAgo", marketData.getMacdCrossoverDaysAgo());
             row.put("sma20", sma20 != null ? sma20 : null);
             row.put("sma50", sma50 != null ? sma50 : null);
             row.put("sma200", sma200 != null ? sma200 : null);
@@ -223,6 +235,10 @@ public class PortfolioTableService {
         row.put("marketCap", 0.0);
         row.put("rsi", null);
         row.put("macd", null);
+        row.put("macdSignal", null);
+        row.put("macdHistogram", null);
+        row.put("macdCrossover", null);
+        row.put("macdCrossoverDaysAgo", null);
         row.put("sma20", null);
         row.put("sma50", null);
         row.put("sma200", null);
@@ -234,10 +250,18 @@ public class PortfolioTableService {
     }
 
     /**
-     * Enhanced trend analysis with multiple technical indicators.
+     * Enhanced trend analysis with multiple technical indicators. A strong moving-average
+     * trend needs MACD momentum on the same side; a fresh MACD crossover tilts an
+     * otherwise sideways or mildly moving market.
      */
     private String analyzeTrendEnhanced(double currentPrice, MarketData marketData) {
         try {
+            // +1 when the MACD line is above its signal line, -1 below, 0 if unknown
+            int macdMomentum = 0;
+            if (marketData.getMacdHistogram() != null) {
+                macdMomentum = marketData.getMacdHistogram() > 0 ? 1 : marketData.getMacdHistogram() < 0 ? -1 : 0;
+            }
+
             // Enhanced trend analysis with multiple indicators
             if (marketData.getSma20() != null && marketData.getSma50() != null && marketData.getSma200() != null) {
                 double sma20 = marketData.getSma20();
@@ -246,9 +270,9 @@ public class PortfolioTableService {
                 
                 // Strong trends
                 if (currentPrice > sma20 && sma20 > sma50 && sma50 > sma200) {
-                    return "STRONG_BULLISH";
+                    return macdMomentum >= 0 ? "STRONG_BULLISH" : "BULLISH";
                 } else if (currentPrice < sma20 && sma20 < sma50 && sma50 < sma200) {
-                    return "STRONG_BEARISH";
+                    return macdMomentum <= 0 ? "STRONG_BEARISH" : "BEARISH";
                 }
                 
                 // Regular trends
@@ -261,6 +285,11 @@ public class PortfolioTableService {
 
             // Fallback to 24h change with more granular categorization
             double change24h = marketData.getPriceChangePercentage24h();
+            boolean freshCrossover = marketData.getMacdCrossover() != null && marketData.getMacdCrossoverDaysAgo() != null
+                && marketData.getMacdCrossoverDaysAgo() <= FRESH_CROSSOVER_DAYS;
+            if (freshCrossover && Math.abs(change24h) <= 5) {
+                return "BULLISH".equals(marketData.getMacdCrossover()) ? "SLIGHTLY_BULLISH" : "SLIGHTLY_BEARISH";
+            }
             if (change24h > 10) {
                 return "VERY_BULLISH";
             } else if (change24h > 5) {
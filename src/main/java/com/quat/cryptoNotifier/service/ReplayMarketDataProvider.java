@@ -0,0 +1,117 @@
+package com.quat.cryptoNotifier.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.MarketChartParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline provider that serves recorded CoinGecko responses from disk, so the pipeline
+ * can be run, load-tested and profiled deterministically without network access.
+ *
+ * Fixture layout under market-data.replay-dir, in the API's own response formats
+ * (a saved curl response works as-is):
+ *   simple-price.json            - /simple/price response covering every coin
+ *   market_chart/{coinId}.json   - /coins/{coinId}/market_chart response
+ *
+ * Each call sleeps market-data.replay-latency-ms first to simulate the network.
+ */
+@Service
+public class ReplayMarketDataProvider implements MarketDataProvider {
+
+    @Autowired
+    private MarketDataConfig marketDataConfig;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Override
+    public String getName() {
+        return "replay";
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException {
+        simulateLatency();
+        File fixture = new File(marketDataConfig.getReplayDir(), "simple-price.json");
+        if (!fixture.exists()) {
+            throw new FileNotFoundException("Replay fixture not found: " + fixture.getPath());
+        }
+        JsonNode priceNode = objectMapper.readTree(fixture);
+        return CoinGeckoMarketDataProvider.parseSimplePrice(priceNode, coinGeckoIds);
+    }
+
+    /**
+     * Recorded history is replayed relative to its own last point: the last N days of
+     * the fixture are returned, whatever today's date is
+     */
+    @Override
+    public PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException, InterruptedException {
+        simulateLatency();
+        PriceSeries recorded = readRecordedHistory(coinGeckoId);
+        if (recorded.isEmpty()) {
+            return recorded;
+        }
+
+        long from = recorded.lastTimestamp() - days * DAY_MILLIS;
+        int firstIndex = 0;
+        while (firstIndex < recorded.size() && recorded.timestampAt(firstIndex) < from) {
+            firstIndex++;
+        }
+        return recorded.tail(recorded.size() - firstIndex);
+    }
+
+    /**
+     * Points of the recorded history that fall inside the range, by their recorded timestamps
+     */
+    @Override
+    public PriceSeries fetchPriceHistoryRange(String coinGeckoId, long fromEpochSecond, long toEpochSecond)
+            throws IOException, InterruptedException {
+        simulateLatency();
+        PriceSeries recorded = readRecordedHistory(coinGeckoId);
+        PriceSeries range = new PriceSeries();
+        for (int i = 0; i < recorded.size(); i++) {
+            long timestamp = recorded.timestampAt(i);
+            if (timestamp >= fromEpochSecond * 1000 && timestamp <= toEpochSecond * 1000) {
+                range.append(timestamp, recorded.closeAt(i), recorded.volumeAt(i), recorded.marketCapAt(i));
+            }
+        }
+        return range;
+    }
+
+    private PriceSeries readRecordedHistory(String coinGeckoId) throws IOException {
+        File fixture = new File(new File(marketDataConfig.getReplayDir(), "market_chart"), coinGeckoId + ".json");
+        if (!fixture.exists()) {
+            throw new FileNotFoundException("Replay fixture not found: " + fixture.getPath());
+        }
+        try (InputStream body = Files.newInputStream(fixture.toPath())) {
+            return MarketChartParser.parse(body, objectMapper.getFactory());
+        }
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        int latencyMs = marketDataConfig.getReplayLatencyMs();
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,14 +24,14 @@ public class RiskOpportunityAnalysisService {
     private InvestmentStrategyService investmentStrategyService;
 
     @Autowired
-    private DataProviderService dataProviderService;
+    private CorrelationService correlationService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Build a comprehensive risk and opportunity analysis prompt with current market data
      */
-    public String buildRiskOpportunityPrompt(List<Holding> holdings) {
+    public String buildRiskOpportunityPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Risk & Opportunity Analysis Prompt\n");
         prompt.append("This analysis is based on my overall investment strategy and current portfolio holdings.\n\n");
@@ -43,7 +44,7 @@ public class RiskOpportunityAnalysisService {
         
         prompt.append("Then, for the overall portfolio:\n");
         prompt.append("- Assess diversification by sector (Layer 1, DeFi, AI, meme, etc.).\n");
-        prompt.append("- Identify overexposure or correlation risks.\n");
+        prompt.append("- Identify overexposure or correlation risks, using the measured return correlations provided.\n");
         prompt.append("- Suggest adjustments to balance risk vs reward.\n\n");
         
         prompt.append("Portfolio data with current market information:\n\n");
@@ -66,7 +67,7 @@ public class RiskOpportunityAnalysisService {
             String technicalAnalysis = "N/A";
 
             try {
-                marketData = dataProviderService.getMarketData(holding.getId());
+                marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     currentPrice = marketData.getCurrentPrice();
                     currentValue = holding.getHoldings() * currentPrice;
@@ -119,6 +120,9 @@ public class RiskOpportunityAnalysisService {
         prompt.append(String.format("Total Profit/Loss: $%.2f (%.2f%%)\n", totalProfitLoss, totalProfitLossPercentage));
         prompt.append("\n");
 
+        // Measured return correlations back the correlation and concentration assessment
+        prompt.append(correlationService.getCorrelationSection(holdings, snapshot));
+
         // Add investment context from centralized strategy
         prompt.append("--- Investment Context ---\n");
         prompt.append(investmentStrategyService.getInvestmentContextSection());
@@ -208,6 +212,10 @@ public class RiskOpportunityAnalysisService {
         if (marketData.getMacd() != null && marketData.getMacdSignal() != null) {
             String macdStatus = marketData.getMacd() > marketData.getMacdSignal() ? "Bullish" : "Bearish";
             analysis.append(String.format("MACD: %s", macdStatus));
+            if (marketData.getMacdCrossover() != null) {
+                analysis.append(String.format(" (%s crossover %dd ago)",
+                    marketData.getMacdCrossover().toLowerCase(), marketData.getMacdCrossoverDaysAgo()));
+            }
         }
 
         return analysis.length() > 0 ? analysis.toString() : "Limited technical data available";
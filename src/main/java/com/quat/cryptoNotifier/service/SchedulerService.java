@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Advisory;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.Holdings;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -27,6 +28,9 @@ public class SchedulerService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private MarketSnapshotService marketSnapshotService;
+
     @Autowired
     private InvestmentAnalysisCacheService investmentAnalysisCacheService;
 
@@ -44,13 +48,15 @@ public class SchedulerService {
             // Load holdings
             List<Holding> holdings = loadHoldings();
             List<Advisory> advisoriesWithAI = new ArrayList<>();
-            
+
+            // Capture market data once so every report in this run sees the same prices
+            MarketSnapshot snapshot = marketSnapshotService.createSnapshot(holdings);
 
             // First pass: Generate basic advisories for portfolio overview
-            buildAndSendOverviewAdvisory(holdings);
+            buildAndSendOverviewAdvisory(holdings, snapshot);
 
             // Second pass: Generate AI investment analysis for each crypto
-            sendAdvisoriesForEachCrypto(holdings);
+            sendAdvisoriesForEachCrypto(holdings, snapshot);
 
             saveDailySnapshot(holdings, advisoriesWithAI);
 
@@ -63,9 +69,13 @@ public class SchedulerService {
     }
 
     public void buildAndSendOverviewAdvisory(List<Holding> holdings) throws InterruptedException {
+        buildAndSendOverviewAdvisory(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public void buildAndSendOverviewAdvisory(List<Holding> holdings, MarketSnapshot snapshot) throws InterruptedException {
         // Generate and send portfolio table
         try {
-            Map<String, Object> portfolioTableData = advisoryEngineService.generatePortfolioTable(holdings);
+            Map<String, Object> portfolioTableData = advisoryEngineService.generatePortfolioTable(holdings, snapshot);
             emailService.sendPortfolioTable(holdings, portfolioTableData);
         } catch (Exception e) {
             System.err.println("Portfolio Table generation failed: " + e.getMessage());
@@ -74,7 +84,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> riskAdvisories = advisoryEngineService.generateRiskOpportunityAnalysis(holdings);
+            Map<String, Object> riskAdvisories = advisoryEngineService.generateRiskOpportunityAnalysis(holdings, snapshot);
             emailService.sendRiskOpportunityAnalysis(holdings, riskAdvisories);
         } catch (Exception e) {
             System.err.println("Risk Opportunity Analysis failed: " + e.getMessage());
@@ -83,7 +93,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> healthAdvisories = advisoryEngineService.generatePortfolioHealthCheck(holdings);
+            Map<String, Object> healthAdvisories = advisoryEngineService.generatePortfolioHealthCheck(holdings, snapshot);
             emailService.sendPortfolioHealthCheck(holdings, healthAdvisories);
         } catch (Exception e) {
             System.err.println("Portfolio Health Check failed: " + e.getMessage());
@@ -92,7 +102,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> opportunityFinderAdvisories = advisoryEngineService.generateOpportunityFinder(holdings);
+            Map<String, Object> opportunityFinderAdvisories = advisoryEngineService.generateOpportunityFinder(holdings, snapshot);
             emailService.sendOpportunityFinderAnalysis(holdings, opportunityFinderAdvisories);
         } catch (Exception e) {
             System.err.println("Opportunity Finder Analysis failed: " + e.getMessage());
@@ -101,7 +111,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> portfolioOptimizationAdvisories = advisoryEngineService.generatePortfolioOptimizationAnalysis(holdings);
+            Map<String, Object> portfolioOptimizationAdvisories = advisoryEngineService.generatePortfolioOptimizationAnalysis(holdings, snapshot);
             emailService.sendPortfolioOptimizationAnalysis(holdings, portfolioOptimizationAdvisories);
         } catch (Exception e) {
             System.err.println("Portfolio Optimization Analysis failed: " + e.getMessage());
@@ -110,7 +120,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> entryExitStrategies = advisoryEngineService.generateEntryExitStrategy(holdings);
+            Map<String, Object> entryExitStrategies = advisoryEngineService.generateEntryExitStrategy(holdings, snapshot);
             emailService.sendEntryExitStrategyAnalysis(holdings, entryExitStrategies);
         } catch (Exception e) {
             System.err.println("Entry & Exit Strategy Analysis failed: " + e.getMessage());
@@ -119,7 +129,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> entryExitStrategies = advisoryEngineService.generateUSDTAllocationStrategy(holdings);
+            Map<String, Object> entryExitStrategies = advisoryEngineService.generateUSDTAllocationStrategy(holdings, snapshot);
             emailService.sendUSDTAllocationStrategy(holdings, entryExitStrategies);
         } catch (Exception e) {
             System.err.println("USDT Allocation Strategy Analysis failed: " + e.getMessage());
@@ -128,7 +138,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> strategyAnalysis = advisoryEngineService.generateInvestmentStrategyAnalysis(holdings);
+            Map<String, Object> strategyAnalysis = advisoryEngineService.generateInvestmentStrategyAnalysis(holdings, snapshot);
             emailService.sendStrategyAndTargetReview(holdings, strategyAnalysis);
         } catch (Exception e) {
             System.err.println("Investment Strategy Analysis failed: " + e.getMessage());
@@ -137,7 +147,7 @@ public class SchedulerService {
         Thread.sleep(1000);
 
         try {
-            Map<String, Object> technicalAnalysis = advisoryEngineService.generateTechnicalAnalysis(holdings);
+            Map<String, Object> technicalAnalysis = advisoryEngineService.generateTechnicalAnalysis(holdings, snapshot);
             emailService.sendTechnicalAnalysis(holdings, technicalAnalysis);
         } catch (Exception e) {
             System.err.println("Technical Analysis failed: " + e.getMessage());
@@ -147,6 +157,10 @@ public class SchedulerService {
     }
 
     public void sendAdvisoriesForEachCrypto(List<Holding> holdings) throws InterruptedException {
+        sendAdvisoriesForEachCrypto(holdings, marketSnapshotService.createSnapshot(holdings));
+    }
+
+    public void sendAdvisoriesForEachCrypto(List<Holding> holdings, MarketSnapshot snapshot) throws InterruptedException {
         // Clear old cache entries at the start of a new analysis session
         investmentAnalysisCacheService.clearOldEntries();
         for (int i = 0; i < holdings.size(); i++) {
@@ -159,7 +173,7 @@ public class SchedulerService {
                 System.out.println("Generating AI advisory for " + holding.getSymbol());
                 
                 // Generate investment analysis
-                Map<String, Object> analysisData = advisoryEngineService.generateInvestmentAnalysis(holding);
+                Map<String, Object> analysisData = advisoryEngineService.generateInvestmentAnalysis(holding, snapshot);
                 
                 // Cache the analysis summary for consolidated email
                 investmentAnalysisCacheService.cacheAnalysisSummary(holding.getSymbol(), analysisData);
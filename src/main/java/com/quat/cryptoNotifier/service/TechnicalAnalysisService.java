@@ -3,8 +3,13 @@ package com.quat.cryptoNotifier.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.quat.cryptoNotifier.model.CandleRingBuffer;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.util.IndicatorUtils;
+import com.quat.cryptoNotifier.util.OhlcvIndicators;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -32,18 +37,25 @@ import java.util.Map;
 @Service
 public class TechnicalAnalysisService {
 
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // Largest gap in daily history still treated as continuous
+    private static final long MAX_HISTORY_GAP_MILLIS = 3 * DAY_MILLIS;
+
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
     @Autowired
-    private DataProviderService dataProviderService;
+    private IntradayCandleService intradayCandleService;
+
+    @Autowired
+    private HistoryBackfillService historyBackfillService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Build a comprehensive technical analysis prompt for all portfolio holdings.
      */
-    public String buildTechnicalAnalysisPrompt(List<Holding> holdings) {
+    public String buildTechnicalAnalysisPrompt(List<Holding> holdings, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("=== COMPREHENSIVE TECHNICAL ANALYSIS REPORT ===\n");
         prompt.append("⚠️ CRITICAL: KEEP TOTAL RESPONSE UNDER 4000 WORDS. BE PRECISE AND TECHNICAL.\n");
@@ -67,10 +79,13 @@ public class TechnicalAnalysisService {
 
             // Fetch current market data for technical analysis
             try {
-                MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                MarketData marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     double currentPrice = marketData.getCurrentPrice();
                     prompt.append(String.format("Current Price: $%.2f\n", currentPrice));
+                    if (marketData.isStale()) {
+                        prompt.append(String.format("Note: cached data from %s, refresh pending\n", marketData.getTimestamp()));
+                    }
                     prompt.append(String.format("24h Change: %.2f%%\n", marketData.getPriceChangePercentage24h()));
                     prompt.append(String.format("24h Volume: $%.0f\n", marketData.getVolume24h()));
 
@@ -79,8 +94,20 @@ public class TechnicalAnalysisService {
                         prompt.append(String.format("RSI (14): %.1f\n", marketData.getRsi()));
                     }
                     if (marketData.getMacd() != null) {
-                        prompt.append(String.format("MACD: %.6f\n", marketData.getMacd()));
+                        prompt.append(String.format("MACD: %.6f", marketData.getMacd()));
+                        if (marketData.getMacdSignal() != null) {
+                            prompt.append(String.format(", Signal: %.6f, Histogram: %.6f",
+                                marketData.getMacdSignal(), marketData.getMacdHistogram()));
+                        }
+                        if (marketData.getMacdCrossover() != null) {
+                            prompt.append(String.format(" (%s crossover %dd ago)",
+                                marketData.getMacdCrossover().toLowerCase(), marketData.getMacdCrossoverDaysAgo()));
+                        }
+                        prompt.append("\n");
                     }
+                    appendVolatilityIndicators(prompt, marketData, currentPrice);
+                    appendIntradayIndicators(prompt, holding.getId());
+                    appendLongHorizonIndicators(prompt, holding.getId(), marketData.getPriceSeries(), currentPrice);
 
                     // Price vs entry levels for technical context
                     double vsAverage = ((currentPrice - holding.getAveragePrice()) / holding.getAveragePrice()) * 100;
@@ -201,6 +228,148 @@ public class TechnicalAnalysisService {
         return prompt.toString();
     }
 
+    /**
+     * Precomputed daily volatility, trend-strength and volume indicators, so the model
+     * reads them instead of estimating them. Daily history has closes only, so the
+     * range-based ones are labelled as close-based approximations.
+     */
+    private void appendVolatilityIndicators(StringBuilder prompt, MarketData marketData, double currentPrice) {
+        if (marketData.getBollingerUpper() != null && marketData.getBollingerLower() != null) {
+            double bandWidth = marketData.getBollingerUpper() - marketData.getBollingerLower();
+            double percentB = bandWidth > 0 ? (currentPrice - marketData.getBollingerLower()) / bandWidth * 100 : 50;
+            prompt.append(String.format("Bollinger (20,2): $%.4f - $%.4f, %%B %.0f, width %.1f%%\n",
+                marketData.getBollingerLower(), marketData.getBollingerUpper(), percentB,
+                bandWidth / marketData.getBollingerMiddle() * 100));
+        }
+        if (marketData.getAtr() != null) {
+            prompt.append(String.format("ATR (14d, close-to-close): $%.4f (%.1f%% of price)\n", marketData.getAtr(),
+                marketData.getAtr() / currentPrice * 100));
+        }
+        if (marketData.getStochasticK() != null) {
+            prompt.append(String.format("Stochastic (14,3, close-based): %%K %.1f, %%D %.1f\n",
+                marketData.getStochasticK(), marketData.getStochasticD()));
+        }
+        if (marketData.getAdx() != null) {
+            prompt.append(String.format("ADX (14, close-based): %.1f (+DI %.1f, -DI %.1f)\n",
+                marketData.getAdx(), marketData.getPlusDi(), marketData.getMinusDi()));
+        }
+        if (marketData.getObvChange20d() != null) {
+            prompt.append(String.format("OBV 20d change: %s%.0f (%s)\n", marketData.getObvChange20d() >= 0 ? "+" : "",
+                marketData.getObvChange20d(), marketData.getObvChange20d() >= 0 ? "accumulation" : "distribution"));
+        }
+        if (marketData.getVwap20d() != null) {
+            prompt.append(String.format("VWAP (20d, volume-weighted closes): $%.4f (price %.1f%% %s)\n", marketData.getVwap20d(),
+                Math.abs(currentPrice - marketData.getVwap20d()) / marketData.getVwap20d() * 100,
+                currentPrice >= marketData.getVwap20d() ? "above" : "below"));
+        }
+    }
+
+    /**
+     * Multi-timeframe RSI, ATR and last-candle change from intraday candles, when intraday mode has data
+     */
+    private void appendIntradayIndicators(StringBuilder prompt, String coinGeckoId) {
+        StringBuilder intraday = new StringBuilder();
+        for (IntradayCandleService.Timeframe timeframe : IntradayCandleService.Timeframe.values()) {
+            CandleRingBuffer candles = intradayCandleService.getCandles(coinGeckoId, timeframe);
+            if (candles == null || candles.size() < 15) {
+                continue;
+            }
+            double[] closes;
+            double[] highs;
+            double[] lows;
+            synchronized (candles) {
+                closes = candles.copyCloses();
+                highs = candles.copyHighs();
+                lows = candles.copyLows();
+            }
+            int size = closes.length;
+            Double rsi = IndicatorUtils.calculateRSI(closes, size, 14);
+            double atr = OhlcvIndicators.averageTrueRange(highs, lows, closes, size, 14);
+            double previousClose = closes[size - 2];
+            double change = ((closes[size - 1] - previousClose) / previousClose) * 100;
+            intraday.append(String.format("  - %s: RSI(14) %.1f, ATR(14) %.2f%%, last candle %.2f%%\n",
+                timeframe.getLabel(), rsi != null ? rsi : Double.NaN, atr / closes[size - 1] * 100, change));
+        }
+        if (intraday.length() > 0) {
+            prompt.append("Intraday Indicators:\n").append(intraday);
+        }
+    }
+
+    /**
+     * 1-year change and 200-week moving average from the backfilled daily archive, if any.
+     * The archive only grows when a backfill runs, so the days after its last record come
+     * from the coin's cached daily series; if the two do not meet, the archive's age is
+     * reported instead of figures measured over the wrong span.
+     */
+    private void appendLongHorizonIndicators(StringBuilder prompt, String coinGeckoId, PriceSeries recent,
+                                             double currentPrice) {
+        PriceSeries archive = historyBackfillService.loadArchivedHistory(coinGeckoId);
+        if (archive == null || archive.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Days from recentFrom on are read from the cached series, earlier ones from the archive
+        boolean joined = recent != null && !recent.isEmpty()
+            && recent.timestampAt(0) <= archive.lastTimestamp() + MAX_HISTORY_GAP_MILLIS;
+        long recentFrom = joined ? recent.timestampAt(0) : Long.MAX_VALUE;
+        long coveredThrough = joined ? Math.max(archive.lastTimestamp(), recent.lastTimestamp()) : archive.lastTimestamp();
+        if (coveredThrough < now - MAX_HISTORY_GAP_MILLIS) {
+            prompt.append(String.format("Long-Term: archived history ends %d days ago, too old for 1Y and 200-week figures\n",
+                (now - archive.lastTimestamp()) / DAY_MILLIS));
+            return;
+        }
+
+        long yearAgoMillis = now - 365 * DAY_MILLIS;
+        Double yearAgo = closeNear(yearAgoMillis < recentFrom ? archive : recent, yearAgoMillis);
+        if (yearAgo == null) {
+            return;
+        }
+        prompt.append(String.format("Long-Term (%.1f years archived): 1Y change %.1f%%",
+            (now - archive.timestampAt(0)) / (365.0 * DAY_MILLIS), ((currentPrice - yearAgo) / yearAgo) * 100));
+
+        long maFromMillis = now - 1400 * DAY_MILLIS;
+        if (archive.timestampAt(0) <= maFromMillis + MAX_HISTORY_GAP_MILLIS) {
+            double sum = 0;
+            int days = 0;
+            for (int i = 0; i < archive.size() && archive.timestampAt(i) < recentFrom; i++) {
+                if (archive.timestampAt(i) >= maFromMillis) {
+                    sum += archive.closeAt(i);
+                    days++;
+                }
+            }
+            for (int i = 0; joined && i < recent.size(); i++) {
+                if (recent.timestampAt(i) >= maFromMillis) {
+                    sum += recent.closeAt(i);
+                    days++;
+                }
+            }
+            double sma200Week = sum / days;
+            prompt.append(String.format(", 200-week MA $%.2f (price %.1f%% %s)", sma200Week,
+                Math.abs((currentPrice - sma200Week) / sma200Week) * 100, currentPrice >= sma200Week ? "above" : "below"));
+        }
+        prompt.append("\n");
+    }
+
+    /**
+     * Close of the point nearest to timestamp, or null if none is within MAX_HISTORY_GAP_MILLIS
+     */
+    private static Double closeNear(PriceSeries series, long timestamp) {
+        int low = 0;
+        int high = series.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (series.timestampAt(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        // low is the first point at or after timestamp, or the last point
+        int nearest = low > 0 && timestamp - series.timestampAt(low - 1) < Math.abs(series.timestampAt(low) - timestamp)
+            ? low - 1 : low;
+        return Math.abs(series.timestampAt(nearest) - timestamp) <= MAX_HISTORY_GAP_MILLIS ? series.closeAt(nearest) : null;
+    }
+
     /**
      * Parse AI response from technical analysis into structured data.
      */
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quat.cryptoNotifier.model.Holding;
 import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,9 +19,6 @@ public class USDTAllocationAnalysisService {
     @Autowired
     private InvestmentStrategyService investmentStrategyService;
 
-    @Autowired
-    private DataProviderService dataProviderService;
-
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -30,7 +28,7 @@ public class USDTAllocationAnalysisService {
      * @param usdtAmount Available USDT amount for deployment
      * @return Formatted prompt string
      */
-    public String buildUSDTAllocationPrompt(List<Holding> holdings, double usdtAmount) {
+    public String buildUSDTAllocationPrompt(List<Holding> holdings, double usdtAmount, MarketSnapshot snapshot) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("USDT Allocation Strategy Analysis Prompt\n");
         prompt.append("This analysis is based on my overall investment strategy and current portfolio holdings.\n\n");
@@ -64,7 +62,7 @@ public class USDTAllocationAnalysisService {
         prompt.append("--- Current Market Context ---\n");
         try {
             for (Holding holding : holdings) {
-                MarketData marketData = dataProviderService.getMarketData(holding.getId());
+                MarketData marketData = snapshot.getMarketData(holding.getId());
                 if (marketData != null) {
                     double currentPrice = marketData.getCurrentPrice();
                     double priceChange24h = marketData.getPriceChangePercentage24h();
@@ -0,0 +1,394 @@
+package com.quat.cryptoNotifier.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rolling pairwise correlation of daily log returns for a fixed set of assets. The last
+ * window returns of every asset are kept in primitive ring arrays, next to running sums
+ * per asset and running cross-product sums per pair, so a new day of closes costs one
+ * pass over the pairs instead of a pass over the whole window. Loops over pairs run on
+ * a ForkJoinPool, split into row ranges of the upper triangle.
+ *
+ * As in IndicatorEngine, the last day can be replaced (a provisional close corrected to
+ * the final one), and the sums are recomputed from the ring once per wrap so
+ * floating-point drift cannot build up.
+ */
+public class CorrelationEngine {
+
+    // Row ranges with less work than this (pairs times cost per pair) run on the calling thread
+    private static final long SEQUENTIAL_WORK = 65536;
+
+    private final int assets;
+    private final int window;
+    private final ForkJoinPool pool;
+    private final double[][] returns;
+    private final double[] sums;
+    private final double[] sumSquares;
+    // Upper triangle (i < j), row by row, starting at rowOffsets[i]
+    private final double[] sumProducts;
+    private final int[] rowOffsets;
+    private final double[] lastCloses;
+    private final double[] previousCloses;
+    // Returns overwritten by the last append, and the returns being added or removed
+    private final double[] evicted;
+    private final double[] changed;
+    private long count;
+    private long lastDay = Long.MIN_VALUE;
+    private boolean hasCloses;
+
+    public CorrelationEngine(int assets, int window, ForkJoinPool pool) {
+        this.assets = assets;
+        this.window = window;
+        this.pool = pool;
+        this.returns = new double[assets][window];
+        this.sums = new double[assets];
+        this.sumSquares = new double[assets];
+        this.rowOffsets = new int[assets];
+        int offset = 0;
+        for (int i = 0; i < assets; i++) {
+            rowOffsets[i] = offset;
+            offset += assets - 1 - i;
+        }
+        this.sumProducts = new double[offset];
+        this.lastCloses = new double[assets];
+        this.previousCloses = new double[assets];
+        this.evicted = new double[assets];
+        this.changed = new double[assets];
+    }
+
+    /**
+     * Add the closes of the next day, one per asset in engine order; all must be positive.
+     * The first call only records the closes, every later call adds one return per asset.
+     */
+    public void append(long day, double[] closes) {
+        if (!hasCloses) {
+            System.arraycopy(closes, 0, lastCloses, 0, assets);
+            lastDay = day;
+            hasCloses = true;
+            return;
+        }
+        int slot = (int) (count % window);
+        boolean full = count >= window;
+        for (int i = 0; i < assets; i++) {
+            double value = Math.log(closes[i] / lastCloses[i]);
+            double old = full ? returns[i][slot] : 0;
+            sums[i] += value - old;
+            sumSquares[i] += value * value - old * old;
+            returns[i][slot] = value;
+            changed[i] = value;
+            evicted[i] = old;
+        }
+        forEachRow(1, i -> {
+            int k = rowOffsets[i];
+            double added = changed[i];
+            double removed = evicted[i];
+            for (int j = i + 1; j < assets; j++, k++) {
+                sumProducts[k] += added * changed[j] - removed * evicted[j];
+            }
+        });
+        count++;
+        System.arraycopy(lastCloses, 0, previousCloses, 0, assets);
+        System.arraycopy(closes, 0, lastCloses, 0, assets);
+        lastDay = day;
+
+        if (slot == window - 1) {
+            resum();
+        }
+    }
+
+    /**
+     * Replace the closes of the last day, e.g. provisional closes with the final ones
+     */
+    public void replaceLast(long day, double[] closes) {
+        if (count == 0) {
+            hasCloses = false;
+            append(day, closes);
+            return;
+        }
+        // Take the last returns back out and put the ones they overwrote back in
+        int slot = (int) ((count - 1) % window);
+        for (int i = 0; i < assets; i++) {
+            double value = returns[i][slot];
+            double old = evicted[i];
+            sums[i] -= value - old;
+            sumSquares[i] -= value * value - old * old;
+            returns[i][slot] = old;
+            changed[i] = value;
+        }
+        forEachRow(1, i -> {
+            int k = rowOffsets[i];
+            double removed = changed[i];
+            double restored = evicted[i];
+            for (int j = i + 1; j < assets; j++, k++) {
+                sumProducts[k] -= removed * changed[j] - restored * evicted[j];
+            }
+        });
+        count--;
+        System.arraycopy(previousCloses, 0, lastCloses, 0, assets);
+        append(day, closes);
+    }
+
+    public int getAssets() {
+        return assets;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns currently in the window, at most window
+     */
+    public int getReturnCount() {
+        return (int) Math.min(count, window);
+    }
+
+    public long getLastDay() {
+        return lastDay;
+    }
+
+    public double lastCloseAt(int asset) {
+        return lastCloses[asset];
+    }
+
+    /**
+     * Pearson correlation of the two assets' returns over the window; NaN with fewer than
+     * two returns or when either asset did not move
+     */
+    public double correlation(int i, int j) {
+        if (i == j) {
+            return 1.0;
+        }
+        return i < j ? correlation(i, j, sumProducts[rowOffsets[i] + j - i - 1])
+            : correlation(j, i, sumProducts[rowOffsets[j] + i - j - 1]);
+    }
+
+    /**
+     * Fill out (assets * assets, row-major) with the full correlation matrix
+     */
+    public double[] correlationMatrix(double[] out) {
+        forEachRow(1, i -> {
+            out[i * assets + i] = 1.0;
+            int k = rowOffsets[i];
+            for (int j = i + 1; j < assets; j++, k++) {
+                double correlation = correlation(i, j, sumProducts[k]);
+                out[i * assets + j] = correlation;
+                out[j * assets + i] = correlation;
+            }
+        });
+        return out;
+    }
+
+    private double correlation(int i, int j, double sumProduct) {
+        int n = getReturnCount();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double varianceI = n * sumSquares[i] - sums[i] * sums[i];
+        double varianceJ = n * sumSquares[j] - sums[j] * sums[j];
+        // Variances within rounding error of zero mean the asset did not move
+        if (varianceI <= 1e-9 * n * sumSquares[i] || varianceJ <= 1e-9 * n * sumSquares[j]) {
+            return Double.NaN;
+        }
+        double correlation = (n * sumProduct - sums[i] * sums[j]) / Math.sqrt(varianceI * varianceJ);
+        return Math.max(-1.0, Math.min(1.0, correlation));
+    }
+
+    private void resum() {
+        int n = getReturnCount();
+        for (int i = 0; i < assets; i++) {
+            double sum = 0;
+            double squares = 0;
+            for (int t = 0; t < n; t++) {
+                sum += returns[i][t];
+                squares += returns[i][t] * returns[i][t];
+            }
+            sums[i] = sum;
+            sumSquares[i] = squares;
+        }
+        forEachRow(n, i -> {
+            int k = rowOffsets[i];
+            double[] a = returns[i];
+            for (int j = i + 1; j < assets; j++, k++) {
+                double[] b = returns[j];
+                double sum = 0;
+                for (int t = 0; t < n; t++) {
+                    sum += a[t] * b[t];
+                }
+                sumProducts[k] = sum;
+            }
+        });
+    }
+
+    private void forEachRow(int costPerPair, RowTask task) {
+        if (assets == 0) {
+            return;
+        }
+        RowRange range = new RowRange(0, assets, costPerPair, task);
+        if (range.work() <= SEQUENTIAL_WORK) {
+            range.compute();
+        } else {
+            pool.invoke(range);
+        }
+    }
+
+    private interface RowTask {
+        void run(int row);
+    }
+
+    /**
+     * Rows [from, to) of the upper triangle, split in half until the work is small enough
+     */
+    private class RowRange extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int costPerPair;
+        private final RowTask task;
+
+        RowRange(int from, int to, int costPerPair, RowTask task) {
+            this.from = from;
+            this.to = to;
+            this.costPerPair = costPerPair;
+            this.task = task;
+        }
+
+        long work() {
+            // Row i has assets - 1 - i pairs
+            long pairs = (long) (to - from) * (2L * assets - from - to - 1) / 2;
+            return pairs * costPerPair;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || work() <= SEQUENTIAL_WORK) {
+                for (int row = from; row < to; row++) {
+                    task.run(row);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowRange(from, middle, costPerPair, task), new RowRange(middle, to, costPerPair, task));
+        }
+    }
+
+    /**
+     * The k most correlated pairs in an n * n matrix, highest first: writes the asset
+     * indices to firsts/seconds and the correlations to values, and returns how many were
+     * found. NaN entries are skipped.
+     */
+    public static int topPairs(double[] matrix, int n, int k, int[] firsts, int[] seconds, double[] values) {
+        int found = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double value = matrix[i * n + j];
+                if (Double.isNaN(value) || (found == k && value <= values[k - 1])) {
+                    continue;
+                }
+                // Insertion into the sorted top k
+                int position = found < k ? found++ : k - 1;
+                while (position > 0 && values[position - 1] < value) {
+                    firsts[position] = firsts[position - 1];
+                    seconds[position] = seconds[position - 1];
+                    values[position] = values[position - 1];
+                    position--;
+                }
+                firsts[position] = i;
+                seconds[position] = j;
+                values[position] = value;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Average-linkage clusters of an n * n correlation matrix, cut where the average
+     * correlation between two clusters drops below threshold, so every cluster's members
+     * correlate with each other by at least threshold on average. Uses the
+     * nearest-neighbour chain, O(n^2). Returns a cluster number per asset, numbered in
+     * order of their first member, or -1 for assets not in any cluster.
+     */
+    public static int[] clusters(double[] matrix, int n, double threshold) {
+        double[] similarity = new double[n * n];
+        for (int i = 0; i < similarity.length; i++) {
+            similarity[i] = Double.isNaN(matrix[i]) ? 0 : matrix[i];
+        }
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        boolean[] active = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+            active[i] = true;
+        }
+
+        int[] chain = new int[n];
+        int depth = 0;
+        int remaining = n;
+        int next = 0;
+        while (remaining > 1) {
+            if (depth == 0) {
+                while (!active[next]) {
+                    next++;
+                }
+                chain[depth++] = next;
+            }
+            int a = chain[depth - 1];
+            int previous = depth > 1 ? chain[depth - 2] : -1;
+            // Prefer the previous chain link on ties so the chain always ends in a reciprocal pair
+            int best = previous;
+            double bestSimilarity = previous >= 0 ? similarity[a * n + previous] : Double.NEGATIVE_INFINITY;
+            for (int b = 0; b < n; b++) {
+                if (active[b] && b != a && similarity[a * n + b] > bestSimilarity) {
+                    best = b;
+                    bestSimilarity = similarity[a * n + b];
+                }
+            }
+
+            if (best < 0 || bestSimilarity < threshold) {
+                // Merging only averages similarities, so a's cluster can no longer reach the threshold
+                active[a] = false;
+                remaining--;
+                depth--;
+            } else if (best == previous) {
+                depth -= 2;
+                int sizeA = size[a];
+                int sizeB = size[best];
+                for (int c = 0; c < n; c++) {
+                    if (active[c] && c != a && c != best) {
+                        double merged = (sizeA * similarity[a * n + c] + sizeB * similarity[best * n + c]) / (sizeA + sizeB);
+                        similarity[a * n + c] = merged;
+                        similarity[c * n + a] = merged;
+                    }
+                }
+                size[a] = sizeA + sizeB;
+                parent[best] = a;
+                active[best] = false;
+                remaining--;
+            } else {
+                chain[depth++] = best;
+            }
+        }
+
+        int[] labels = new int[n];
+        int[] rootLabels = new int[n];
+        Arrays.fill(rootLabels, -1);
+        int clusters = 0;
+        for (int i = 0; i < n; i++) {
+            int root = i;
+            while (parent[root] != root) {
+                root = parent[root];
+            }
+            if (size[root] < 2) {
+                labels[i] = -1;
+                continue;
+            }
+            if (rootLabels[root] < 0) {
+                rootLabels[root] = clusters++;
+            }
+            labels[i] = rootLabels[root];
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,238 @@
+package com.quat.cryptoNotifier.util;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.quat.cryptoNotifier.model.PriceSeries;
+
+/**
+ * Streaming indicators for one coin's close series. Each append updates SMA 20/50/200
+ * (running sums over a ring of the last 200 closes), EMA 12/26, Wilder-smoothed RSI 14
+ * and the MACD line with its EMA 9 signal in O(1) without allocating. EMAs are seeded
+ * with the SMA of their first period, matching the batch functions in IndicatorUtils.
+ *
+ * The state before the last append is kept so the last point can be replaced, which is
+ * how a provisional intraday close is corrected to the final daily close. The engine
+ * serializes to JSON with its fields, so it can be persisted next to the series.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE, setterVisibility = JsonAutoDetect.Visibility.NONE)
+public class IndicatorEngine {
+
+    public static final int RSI_PERIOD = 14;
+    public static final int MACD_FAST = 12;
+    public static final int MACD_SLOW = 26;
+    public static final int MACD_SIGNAL = 9;
+    private static final int WINDOW = 200;
+
+    private double[] window = new double[WINDOW];
+    private State current = new State();
+    private State beforeLast = new State();
+    // Ring value overwritten by the last append
+    private double lastEvicted;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE, setterVisibility = JsonAutoDetect.Visibility.NONE)
+    static class State {
+        long count;
+        long lastTimestamp;
+        double lastClose;
+        double sum20;
+        double sum50;
+        double sum200;
+        // Hold the running sum of the first closes until the EMA is seeded
+        double emaFast;
+        double emaSlow;
+        long macdCount;
+        double signal;
+        double avgGain;
+        double avgLoss;
+
+        void copyFrom(State other) {
+            count = other.count;
+            lastTimestamp = other.lastTimestamp;
+            lastClose = other.lastClose;
+            sum20 = other.sum20;
+            sum50 = other.sum50;
+            sum200 = other.sum200;
+            emaFast = other.emaFast;
+            emaSlow = other.emaSlow;
+            macdCount = other.macdCount;
+            signal = other.signal;
+            avgGain = other.avgGain;
+            avgLoss = other.avgLoss;
+        }
+    }
+
+    /**
+     * Engine fed with every point of the series
+     */
+    public static IndicatorEngine of(PriceSeries series) {
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int i = 0; i < series.size(); i++) {
+            engine.append(series.timestampAt(i), series.closeAt(i));
+        }
+        return engine;
+    }
+
+    /**
+     * Independent copy, so a shared engine can be advanced without touching the original
+     */
+    public IndicatorEngine copy() {
+        IndicatorEngine copy = new IndicatorEngine();
+        System.arraycopy(window, 0, copy.window, 0, WINDOW);
+        copy.current.copyFrom(current);
+        copy.beforeLast.copyFrom(beforeLast);
+        copy.lastEvicted = lastEvicted;
+        return copy;
+    }
+
+    public void append(long timestamp, double close) {
+        beforeLast.copyFrom(current);
+        State s = current;
+        int slot = (int) (s.count % WINDOW);
+        lastEvicted = window[slot];
+
+        s.sum20 += close - (s.count >= 20 ? window[(int) ((s.count - 20) % WINDOW)] : 0);
+        s.sum50 += close - (s.count >= 50 ? window[(int) ((s.count - 50) % WINDOW)] : 0);
+        s.sum200 += close - (s.count >= WINDOW ? lastEvicted : 0);
+        window[slot] = close;
+
+        if (s.count > 0) {
+            double change = close - s.lastClose;
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (s.count <= RSI_PERIOD) {
+                // First period: plain sums, averaged once the period is complete
+                s.avgGain += gain;
+                s.avgLoss += loss;
+                if (s.count == RSI_PERIOD) {
+                    s.avgGain /= RSI_PERIOD;
+                    s.avgLoss /= RSI_PERIOD;
+                }
+            } else {
+                s.avgGain = (s.avgGain * (RSI_PERIOD - 1) + gain) / RSI_PERIOD;
+                s.avgLoss = (s.avgLoss * (RSI_PERIOD - 1) + loss) / RSI_PERIOD;
+            }
+        }
+
+        s.emaFast = IndicatorUtils.nextEma(s.emaFast, close, s.count, MACD_FAST);
+        s.emaSlow = IndicatorUtils.nextEma(s.emaSlow, close, s.count, MACD_SLOW);
+        if (s.count >= MACD_SLOW - 1) {
+            s.signal = IndicatorUtils.nextEma(s.signal, s.emaFast - s.emaSlow, s.macdCount, MACD_SIGNAL);
+            s.macdCount++;
+        }
+        s.count++;
+        s.lastTimestamp = timestamp;
+        s.lastClose = close;
+
+        // Re-sum the windows once per wrap so floating-point drift cannot build up
+        if (slot == WINDOW - 1) {
+            resum();
+        }
+    }
+
+    /**
+     * Replace the last appended point, e.g. a provisional close with the final one
+     */
+    public void replaceLast(long timestamp, double close) {
+        if (current.count == 0) {
+            append(timestamp, close);
+            return;
+        }
+        current.copyFrom(beforeLast);
+        window[(int) (current.count % WINDOW)] = lastEvicted;
+        append(timestamp, close);
+    }
+
+    /**
+     * Bring the engine up to date with a series that extends what it has seen: points
+     * after the last one are appended and a changed last point is replaced. Returns false,
+     * leaving the engine untouched, when the series does not continue from the engine's
+     * last point (history was replaced); the caller should rebuild with of(series).
+     */
+    public boolean sync(PriceSeries series, long bucketMillis) {
+        if (current.count == 0) {
+            return false;
+        }
+        long lastBucket = Math.floorDiv(current.lastTimestamp, bucketMillis);
+        int index = series.size() - 1;
+        while (index >= 0 && Math.floorDiv(series.timestampAt(index), bucketMillis) > lastBucket) {
+            index--;
+        }
+        if (index < 0 || Math.floorDiv(series.timestampAt(index), bucketMillis) != lastBucket) {
+            return false;
+        }
+
+        if (series.timestampAt(index) != current.lastTimestamp || series.closeAt(index) != current.lastClose) {
+            replaceLast(series.timestampAt(index), series.closeAt(index));
+        }
+        for (int i = index + 1; i < series.size(); i++) {
+            append(series.timestampAt(i), series.closeAt(i));
+        }
+        return true;
+    }
+
+    public long getCount() {
+        return current.count;
+    }
+
+    public long getLastTimestamp() {
+        return current.lastTimestamp;
+    }
+
+    public Double getSma20() {
+        return current.count >= 20 ? current.sum20 / 20 : null;
+    }
+
+    public Double getSma50() {
+        return current.count >= 50 ? current.sum50 / 50 : null;
+    }
+
+    public Double getSma200() {
+        return current.count >= WINDOW ? current.sum200 / WINDOW : null;
+    }
+
+    public Double getRsi() {
+        if (current.count <= RSI_PERIOD) {
+            return null;
+        }
+        if (current.avgLoss == 0) {
+            return 100.0;
+        }
+        return 100 - (100 / (1 + current.avgGain / current.avgLoss));
+    }
+
+    public Double getMacd() {
+        return current.count >= MACD_SLOW ? current.emaFast - current.emaSlow : null;
+    }
+
+    public Double getMacdSignal() {
+        return current.macdCount >= MACD_SIGNAL ? current.signal : null;
+    }
+
+    public Double getMacdHistogram() {
+        return current.macdCount >= MACD_SIGNAL ? current.emaFast - current.emaSlow - current.signal : null;
+    }
+
+    private void resum() {
+        State s = current;
+        double sum20 = 0;
+        double sum50 = 0;
+        double sum200 = 0;
+        for (int back = 0; back < WINDOW && back < s.count; back++) {
+            double close = window[(int) ((s.count - 1 - back) % WINDOW)];
+            if (back < 20) {
+                sum20 += close;
+            }
+            if (back < 50) {
+                sum50 += close;
+            }
+            sum200 += close;
+        }
+        s.sum20 = sum20;
+        s.sum50 = sum50;
+        s.sum200 = sum200;
+    }
+}
@@ -1,5 +1,7 @@
 package com.quat.cryptoNotifier.util;
 
+import com.quat.cryptoNotifier.model.PriceSeries;
+
 import java.util.List;
 
 public class IndicatorUtils {
@@ -8,13 +10,24 @@ public class IndicatorUtils {
      * Calculate Simple Moving Average
      */
     public static Double calculateSMA(List<Double> prices, int period) {
-        if (prices == null || prices.size() < period) {
+        return prices == null ? null : calculateSMA(toArray(prices), prices.size(), period);
+    }
+
+    public static Double calculateSMA(PriceSeries series, int period) {
+        return series == null ? null : calculateSMA(series.closesArray(), series.size(), period);
+    }
+
+    /**
+     * Simple Moving Average over the first size elements of closes
+     */
+    public static Double calculateSMA(double[] closes, int size, int period) {
+        if (closes == null || size < period) {
             return null;
         }
-        
+
         double sum = 0;
-        for (int i = prices.size() - period; i < prices.size(); i++) {
-            sum += prices.get(i);
+        for (int i = size - period; i < size; i++) {
+            sum += closes[i];
         }
         return sum / period;
     }
@@ -23,26 +36,41 @@ public class IndicatorUtils {
      * Calculate RSI (Relative Strength Index)
      */
     public static Double calculateRSI(List<Double> prices, int period) {
-        if (prices == null || prices.size() < period + 1) {
+        return prices == null ? null : calculateRSI(toArray(prices), prices.size(), period);
+    }
+
+    public static Double calculateRSI(PriceSeries series, int period) {
+        return series == null ? null : calculateRSI(series.closesArray(), series.size(), period);
+    }
+
+    /**
+     * Wilder-smoothed RSI over the first size elements of closes: the first period of
+     * changes is averaged, every later change is smoothed in. Same values as IndicatorEngine.
+     */
+    public static Double calculateRSI(double[] closes, int size, int period) {
+        if (closes == null || size < period + 1) {
             return null;
         }
 
-        double gainSum = 0;
-        double lossSum = 0;
-
-        // Calculate initial average gain and loss
-        for (int i = prices.size() - period; i < prices.size(); i++) {
-            double change = prices.get(i) - prices.get(i - 1);
-            if (change > 0) {
-                gainSum += change;
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 1; i < size; i++) {
+            double change = closes[i] - closes[i - 1];
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (i <= period) {
+                avgGain += gain;
+                avgLoss += loss;
+                if (i == period) {
+                    avgGain /= period;
+                    avgLoss /= period;
+                }
             } else {
-                lossSum += Math.abs(change);
+                avgGain = (avgGain * (period - 1) + gain) / period;
+                avgLoss = (avgLoss * (period - 1) + loss) / period;
             }
         }
 
-        double avgGain = gainSum / period;
-        double avgLoss = lossSum / period;
-
         if (avgLoss == 0) {
             return 100.0;
         }
@@ -55,50 +83,120 @@ public class IndicatorUtils {
      * Calculate MACD (Moving Average Convergence Divergence)
      */
     public static MACDResult calculateMACD(List<Double> prices, int fastPeriod, int slowPeriod, int signalPeriod) {
-        if (prices == null || prices.size() < Math.max(slowPeriod, signalPeriod) + 1) {
-            return null;
-        }
+        return prices == null ? null : calculateMACD(toArray(prices), prices.size(), fastPeriod, slowPeriod, signalPeriod);
+    }
 
-        // Calculate EMAs
-        Double fastEMA = calculateEMA(prices, fastPeriod);
-        Double slowEMA = calculateEMA(prices, slowPeriod);
+    public static MACDResult calculateMACD(PriceSeries series, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return series == null ? null : calculateMACD(series.closesArray(), series.size(), fastPeriod, slowPeriod, signalPeriod);
+    }
 
-        if (fastEMA == null || slowEMA == null) {
+    /**
+     * Latest MACD line, signal and histogram over the first size elements of closes, or
+     * null until the signal line exists (slowPeriod + signalPeriod - 1 closes)
+     */
+    public static MACDResult calculateMACD(double[] closes, int size, int fastPeriod, int slowPeriod, int signalPeriod) {
+        if (closes == null || size < slowPeriod + signalPeriod - 1) {
             return null;
         }
 
-        double macdLine = fastEMA - slowEMA;
+        MACDSeries series = calculateMACDSeries(closes, size, fastPeriod, slowPeriod, signalPeriod, new MACDSeries());
+        int last = size - 1;
+        return new MACDResult(series.macdAt(last), series.signalAt(last), series.histogramAt(last));
+    }
 
-        // For simplicity, using SMA for signal line instead of EMA
-        // In a production system, you'd maintain MACD history and calculate EMA of MACD
-        return new MACDResult(macdLine, macdLine); // Using same value for signal as approximation
+    public static MACDSeries calculateMACDSeries(PriceSeries series, int fastPeriod, int slowPeriod, int signalPeriod, MACDSeries out) {
+        return calculateMACDSeries(series.closesArray(), series.size(), fastPeriod, slowPeriod, signalPeriod, out);
     }
 
     /**
-     * Calculate Exponential Moving Average
+     * Full MACD line, EMA signal line and histogram for the first size elements of closes,
+     * computed in one pass into out (whose arrays are reused when large enough). Points
+     * before the line or signal exist are NaN. EMAs are seeded with the SMA of their first
+     * period, so the last values match IndicatorEngine.
      */
-    private static Double calculateEMA(List<Double> prices, int period) {
-        if (prices == null || prices.size() < period) {
+    public static MACDSeries calculateMACDSeries(double[] closes, int size, int fastPeriod, int slowPeriod, int signalPeriod,
+                                                 MACDSeries out) {
+        out.reset(size, slowPeriod - 1, slowPeriod + signalPeriod - 2);
+        double fastEma = 0;
+        double slowEma = 0;
+        double signal = 0;
+
+        for (int i = 0; i < size; i++) {
+            double close = closes[i];
+            fastEma = nextEma(fastEma, close, i, fastPeriod);
+            slowEma = nextEma(slowEma, close, i, slowPeriod);
+            if (i < slowPeriod - 1) {
+                out.macd[i] = Double.NaN;
+                out.signal[i] = Double.NaN;
+                out.histogram[i] = Double.NaN;
+                continue;
+            }
+
+            double macd = fastEma - slowEma;
+            signal = nextEma(signal, macd, i - (slowPeriod - 1), signalPeriod);
+            boolean hasSignal = i >= slowPeriod + signalPeriod - 2;
+            out.macd[i] = macd;
+            out.signal[i] = hasSignal ? signal : Double.NaN;
+            out.histogram[i] = hasSignal ? macd - signal : Double.NaN;
+        }
+        return out;
+    }
+
+    /**
+     * EMA step for the value at index (0-based) of its input: sums the first period values,
+     * turns the sum into the SMA seed at period - 1, then smooths. Shared with IndicatorEngine.
+     */
+    static double nextEma(double ema, double value, long index, int period) {
+        if (index < period - 1) {
+            return ema + value;
+        }
+        if (index == period - 1) {
+            return (ema + value) / period;
+        }
+        double multiplier = 2.0 / (period + 1);
+        return value * multiplier + ema * (1 - multiplier);
+    }
+
+    /**
+     * Exponential Moving Average over the whole series, seeded with the SMA of the
+     * first period. Same values as IndicatorEngine.
+     */
+    public static Double calculateEMA(double[] closes, int size, int period) {
+        if (closes == null || size < period) {
             return null;
         }
 
         double multiplier = 2.0 / (period + 1);
-        double ema = prices.get(prices.size() - period); // Start with first price
+        double ema = 0;
+        for (int i = 0; i < period; i++) {
+            ema += closes[i];
+        }
+        ema /= period;
 
-        for (int i = prices.size() - period + 1; i < prices.size(); i++) {
-            ema = (prices.get(i) * multiplier) + (ema * (1 - multiplier));
+        for (int i = period; i < size; i++) {
+            ema = (closes[i] * multiplier) + (ema * (1 - multiplier));
         }
 
         return ema;
     }
 
+    private static double[] toArray(List<Double> prices) {
+        double[] closes = new double[prices.size()];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = prices.get(i);
+        }
+        return closes;
+    }
+
     public static class MACDResult {
         private final double macd;
         private final double signal;
+        private final double histogram;
 
-        public MACDResult(double macd, double signal) {
+        public MACDResult(double macd, double signal, double histogram) {
             this.macd = macd;
             this.signal = signal;
+            this.histogram = histogram;
         }
 
         public double getMacd() {
@@ -108,5 +206,84 @@ public class IndicatorUtils {
         public double getSignal() {
             return signal;
         }
+
+        public double getHistogram() {
+            return histogram;
+        }
+    }
+
+    /**
+     * Reusable output of calculateMACDSeries: MACD line, signal line and histogram per
+     * input point. A crossover is where the histogram changes sign: bullish when the MACD
+     * line moves above the signal line, bearish when it moves below.
+     */
+    public static class MACDSeries {
+        private double[] macd = new double[0];
+        private double[] signal = new double[0];
+        private double[] histogram = new double[0];
+        private int size;
+        private int firstMacdIndex;
+        private int firstSignalIndex;
+
+        void reset(int size, int firstMacdIndex, int firstSignalIndex) {
+            if (macd.length < size) {
+                macd = new double[size];
+                signal = new double[size];
+                histogram = new double[size];
+            }
+            this.size = size;
+            this.firstMacdIndex = firstMacdIndex;
+            this.firstSignalIndex = firstSignalIndex;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double macdAt(int index) {
+            return macd[index];
+        }
+
+        public double signalAt(int index) {
+            return signal[index];
+        }
+
+        public double histogramAt(int index) {
+            return histogram[index];
+        }
+
+        public boolean hasSignal() {
+            return size > firstSignalIndex;
+        }
+
+        /**
+         * 1 for a bullish crossover at index, -1 for a bearish one, 0 otherwise
+         */
+        public int crossoverAt(int index) {
+            if (index <= firstSignalIndex || index >= size) {
+                return 0;
+            }
+            double previous = histogram[index - 1];
+            double current = histogram[index];
+            if (previous <= 0 && current > 0) {
+                return 1;
+            }
+            if (previous >= 0 && current < 0) {
+                return -1;
+            }
+            return 0;
+        }
+
+        /**
+         * Index of the most recent crossover within the last lookback points, or -1
+         */
+        public int lastCrossoverIndex(int lookback) {
+            for (int i = size - 1; i >= Math.max(firstSignalIndex + 1, size - lookback); i--) {
+                if (crossoverAt(i) != 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
 }
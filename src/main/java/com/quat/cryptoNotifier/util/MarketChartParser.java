@@ -0,0 +1,135 @@
+package com.quat.cryptoNotifier.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.quat.cryptoNotifier.model.PriceSeries;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for CoinGecko market_chart responses:
+ * {"prices":[[ts,price],...],"market_caps":[[ts,cap],...],"total_volumes":[[ts,vol],...]}
+ *
+ * Pairs are read token by token straight into primitive arrays, without building a
+ * JsonNode tree or buffering the body as a String. Market caps and volumes are matched
+ * to prices by timestamp; a missing or null value becomes NaN.
+ */
+public class MarketChartParser {
+
+    private MarketChartParser() {}
+
+    public static PriceSeries parse(InputStream body, JsonFactory jsonFactory) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in market_chart response");
+            }
+
+            Pairs prices = null;
+            Pairs marketCaps = new Pairs(0);
+            Pairs volumes = new Pairs(0);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "prices":
+                        prices = readPairs(parser);
+                        break;
+                    case "market_caps":
+                        marketCaps = readPairs(parser);
+                        break;
+                    case "total_volumes":
+                        volumes = readPairs(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            if (prices == null) {
+                throw new IOException("No prices array in market_chart response");
+            }
+
+            PriceSeries series = new PriceSeries(prices.size);
+            int capIndex = 0;
+            int volumeIndex = 0;
+            for (int i = 0; i < prices.size; i++) {
+                long timestamp = prices.timestamps[i];
+                capIndex = marketCaps.seek(capIndex, timestamp);
+                volumeIndex = volumes.seek(volumeIndex, timestamp);
+                series.append(timestamp, prices.values[i],
+                    volumes.valueAt(volumeIndex, timestamp), marketCaps.valueAt(capIndex, timestamp));
+            }
+            return series;
+        }
+    }
+
+    /**
+     * Read an array of [timestamp, value] pairs; the parser is positioned on its START_ARRAY
+     */
+    private static Pairs readPairs(JsonParser parser) throws IOException {
+        Pairs pairs = new Pairs(256);
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return pairs;
+        }
+
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            JsonToken timestampToken = parser.nextToken();
+            if (timestampToken == JsonToken.END_ARRAY) {
+                continue; // Empty pair
+            }
+            long timestamp = parser.getValueAsLong();
+            double value = Double.NaN;
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.VALUE_NULL) {
+                    value = parser.getValueAsDouble(Double.NaN);
+                }
+                // Ignore any trailing elements of the pair
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                }
+            }
+            pairs.add(timestamp, value);
+        }
+        return pairs;
+    }
+
+    // Growable parallel arrays for one [timestamp, value] list
+    private static class Pairs {
+        private long[] timestamps;
+        private double[] values;
+        private int size;
+
+        Pairs(int capacity) {
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+        }
+
+        void add(long timestamp, double value) {
+            if (size == values.length) {
+                int capacity = Math.max(16, size * 2);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        // Advance to the first entry not before timestamp; both lists are in timestamp order
+        int seek(int from, long timestamp) {
+            int index = from;
+            while (index < size && timestamps[index] < timestamp) {
+                index++;
+            }
+            return index;
+        }
+
+        double valueAt(int index, long timestamp) {
+            return index < size && timestamps[index] == timestamp ? values[index] : Double.NaN;
+        }
+    }
+}
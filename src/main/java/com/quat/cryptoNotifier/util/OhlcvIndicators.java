@@ -0,0 +1,196 @@
+package com.quat.cryptoNotifier.util;
+
+/**
+ * Volatility, momentum and volume indicators over primitive OHLCV arrays. Every method
+ * reads the first size elements of its inputs and returns a primitive, or writes into a
+ * caller-supplied out array, so nothing is allocated per call. Results are NaN when the
+ * series is too short or a needed value is missing.
+ *
+ * Series without intraday ranges (daily closes from market_chart) can pass the closes as
+ * high and low: ATR and ADX then measure close-to-close moves and the stochastic uses the
+ * highest and lowest close.
+ */
+public class OhlcvIndicators {
+
+    /**
+     * Bollinger Bands: out[0] middle (SMA), out[1] upper, out[2] lower, each
+     * stdDevs population standard deviations from the middle. Returns false if too short.
+     */
+    public static boolean bollingerBands(double[] close, int size, int period, double stdDevs, double[] out) {
+        if (size < period) {
+            out[0] = out[1] = out[2] = Double.NaN;
+            return false;
+        }
+        double sum = 0;
+        for (int i = size - period; i < size; i++) {
+            sum += close[i];
+        }
+        double mean = sum / period;
+        double squares = 0;
+        for (int i = size - period; i < size; i++) {
+            double deviation = close[i] - mean;
+            squares += deviation * deviation;
+        }
+        double width = stdDevs * Math.sqrt(squares / period);
+        out[0] = mean;
+        out[1] = mean + width;
+        out[2] = mean - width;
+        return true;
+    }
+
+    /**
+     * Average True Range with Wilder smoothing, seeded with the mean of the first period ranges
+     */
+    public static double averageTrueRange(double[] high, double[] low, double[] close, int size, int period) {
+        if (size < period + 1) {
+            return Double.NaN;
+        }
+        double atr = 0;
+        for (int i = 1; i < size; i++) {
+            double trueRange = trueRange(high, low, close, i);
+            if (i <= period) {
+                atr += trueRange;
+                if (i == period) {
+                    atr /= period;
+                }
+            } else {
+                atr = (atr * (period - 1) + trueRange) / period;
+            }
+        }
+        return atr;
+    }
+
+    /**
+     * Stochastic oscillator: out[0] %K over kPeriod, out[1] %D as the SMA of the last
+     * dPeriod %K values. A flat range counts as 50. Returns false if too short.
+     */
+    public static boolean stochastic(double[] high, double[] low, double[] close, int size, int kPeriod, int dPeriod,
+                                     double[] out) {
+        if (size < kPeriod + dPeriod - 1) {
+            out[0] = out[1] = Double.NaN;
+            return false;
+        }
+        double sumK = 0;
+        double lastK = Double.NaN;
+        for (int end = size - dPeriod + 1; end <= size; end++) {
+            double highest = Double.NEGATIVE_INFINITY;
+            double lowest = Double.POSITIVE_INFINITY;
+            for (int i = end - kPeriod; i < end; i++) {
+                highest = Math.max(highest, high[i]);
+                lowest = Math.min(lowest, low[i]);
+            }
+            lastK = highest > lowest ? 100 * (close[end - 1] - lowest) / (highest - lowest) : 50;
+            sumK += lastK;
+        }
+        out[0] = lastK;
+        out[1] = sumK / dPeriod;
+        return true;
+    }
+
+    /**
+     * On-Balance Volume accumulated over the first size points, starting from zero
+     */
+    public static double onBalanceVolume(double[] close, double[] volume, int size) {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        double obv = 0;
+        for (int i = 1; i < size; i++) {
+            if (Double.isNaN(volume[i])) {
+                return Double.NaN;
+            }
+            if (close[i] > close[i - 1]) {
+                obv += volume[i];
+            } else if (close[i] < close[i - 1]) {
+                obv -= volume[i];
+            }
+        }
+        return obv;
+    }
+
+    /**
+     * Average Directional Index (Wilder): out[0] ADX, out[1] +DI, out[2] -DI. Needs
+     * 2 * period points. Returns false if too short.
+     */
+    public static boolean averageDirectionalIndex(double[] high, double[] low, double[] close, int size, int period,
+                                                  double[] out) {
+        if (size < 2 * period) {
+            out[0] = out[1] = out[2] = Double.NaN;
+            return false;
+        }
+        double smoothedRange = 0;
+        double smoothedPlusDm = 0;
+        double smoothedMinusDm = 0;
+        double adx = 0;
+        double plusDi = 0;
+        double minusDi = 0;
+
+        for (int i = 1; i < size; i++) {
+            double upMove = high[i] - high[i - 1];
+            double downMove = low[i - 1] - low[i];
+            double plusDm = upMove > downMove && upMove > 0 ? upMove : 0;
+            double minusDm = downMove > upMove && downMove > 0 ? downMove : 0;
+            double trueRange = trueRange(high, low, close, i);
+
+            if (i <= period) {
+                smoothedRange += trueRange;
+                smoothedPlusDm += plusDm;
+                smoothedMinusDm += minusDm;
+                if (i < period) {
+                    continue;
+                }
+            } else {
+                smoothedRange = smoothedRange - smoothedRange / period + trueRange;
+                smoothedPlusDm = smoothedPlusDm - smoothedPlusDm / period + plusDm;
+                smoothedMinusDm = smoothedMinusDm - smoothedMinusDm / period + minusDm;
+            }
+
+            plusDi = smoothedRange > 0 ? 100 * smoothedPlusDm / smoothedRange : 0;
+            minusDi = smoothedRange > 0 ? 100 * smoothedMinusDm / smoothedRange : 0;
+            double diSum = plusDi + minusDi;
+            double dx = diSum > 0 ? 100 * Math.abs(plusDi - minusDi) / diSum : 0;
+
+            // DX values from index period onwards: average the first period, then smooth
+            int dxIndex = i - period;
+            if (dxIndex < period) {
+                adx += dx;
+                if (dxIndex == period - 1) {
+                    adx /= period;
+                }
+            } else {
+                adx = (adx * (period - 1) + dx) / period;
+            }
+        }
+
+        out[0] = adx;
+        out[1] = plusDi;
+        out[2] = minusDi;
+        return true;
+    }
+
+    /**
+     * Volume-weighted average price over the last period points, using the typical
+     * price (high + low + close) / 3
+     */
+    public static double volumeWeightedAveragePrice(double[] high, double[] low, double[] close, double[] volume,
+                                                    int size, int period) {
+        if (size < period) {
+            return Double.NaN;
+        }
+        double priceVolume = 0;
+        double totalVolume = 0;
+        for (int i = size - period; i < size; i++) {
+            if (Double.isNaN(volume[i])) {
+                return Double.NaN;
+            }
+            priceVolume += (high[i] + low[i] + close[i]) / 3 * volume[i];
+            totalVolume += volume[i];
+        }
+        return totalVolume > 0 ? priceVolume / totalVolume : Double.NaN;
+    }
+
+    private static double trueRange(double[] high, double[] low, double[] close, int i) {
+        double previousClose = close[i - 1];
+        return Math.max(high[i] - low[i], Math.max(Math.abs(high[i] - previousClose), Math.abs(low[i] - previousClose)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.quat.cryptoNotifier.util;
+
+import com.quat.cryptoNotifier.model.PriceSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact per-coin daily history file written by the backfill: a fixed header followed
+ * by fixed-size records in timestamp order, so readers can memory-map the file and index
+ * it directly.
+ *
+ * Layout: [int magic][int version][long reserved], then per point
+ * [long timestampMillis][double close][double volume][double marketCap], big-endian.
+ * Records are only ever appended; a torn record at the tail is truncated on open.
+ */
+public class PriceHistoryFile implements Closeable {
+
+    private static final int MAGIC = 0x50485346; // "PHSF"
+    private static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 32;
+
+    private final Path path;
+    private final FileChannel channel;
+    private long recordCount;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private PriceHistoryFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Open for appending, creating the file with a header if it does not exist
+     */
+    public static PriceHistoryFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PriceHistoryFile file = new PriceHistoryFile(path, channel);
+        try {
+            file.initialize();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    private void initialize() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(0);
+            header.flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            channel.force(true);
+        } else {
+            ByteBuffer header = readFully(0, HEADER_BYTES);
+            checkHeader(header);
+        }
+
+        long dataBytes = channel.size() - HEADER_BYTES;
+        recordCount = dataBytes / RECORD_BYTES;
+        if (dataBytes % RECORD_BYTES != 0) {
+            channel.truncate(HEADER_BYTES + recordCount * RECORD_BYTES);
+        }
+        if (recordCount > 0) {
+            lastTimestamp = readFully(HEADER_BYTES + (recordCount - 1) * RECORD_BYTES, 8).getLong();
+        }
+    }
+
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Timestamp of the last record, or Long.MIN_VALUE when the file is empty
+     */
+    public synchronized long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Append the points of a series that are newer than the last record, one per UTC
+     * day, skipping points at or after beforeMillis (an incomplete day). Returns the
+     * number of records written; they are forced to disk before returning.
+     */
+    public synchronized int appendDaily(PriceSeries series, long beforeMillis) throws IOException {
+        final long dayMillis = 24L * 60 * 60 * 1000;
+        ByteBuffer records = ByteBuffer.allocate(series.size() * RECORD_BYTES);
+        long lastDay = lastTimestamp == Long.MIN_VALUE ? Long.MIN_VALUE : Math.floorDiv(lastTimestamp, dayMillis);
+        long newLastTimestamp = lastTimestamp;
+        int written = 0;
+
+        for (int i = 0; i < series.size(); i++) {
+            long timestamp = series.timestampAt(i);
+            long day = Math.floorDiv(timestamp, dayMillis);
+            if (timestamp >= beforeMillis || (lastDay != Long.MIN_VALUE && day <= lastDay)) {
+                continue;
+            }
+            records.putLong(timestamp)
+                .putDouble(series.closeAt(i))
+                .putDouble(series.volumeAt(i))
+                .putDouble(series.marketCapAt(i));
+            lastDay = day;
+            newLastTimestamp = timestamp;
+            written++;
+        }
+
+        if (written > 0) {
+            records.flip();
+            writeFully(records, HEADER_BYTES + recordCount * RECORD_BYTES);
+            channel.force(false);
+            recordCount += written;
+            lastTimestamp = newLastTimestamp;
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Memory-map a history file read-only and copy it into a PriceSeries. Reading the
+     * columns straight out of the mapped pages avoids per-record reads or parsing.
+     */
+    public static PriceSeries readSeries(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long dataBytes = channel.size() - HEADER_BYTES;
+            if (dataBytes < 0) {
+                throw new IOException("Truncated history file: " + path);
+            }
+            long count = dataBytes / RECORD_BYTES;
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("History file too large: " + path);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + count * RECORD_BYTES);
+            checkHeader(mapped);
+
+            int size = (int) count;
+            long[] timestamps = new long[size];
+            double[] closes = new double[size];
+            double[] volumes = new double[size];
+            double[] marketCaps = new double[size];
+            for (int i = 0; i < size; i++) {
+                int offset = HEADER_BYTES + i * RECORD_BYTES;
+                timestamps[i] = mapped.getLong(offset);
+                closes[i] = mapped.getDouble(offset + 8);
+                volumes[i] = mapped.getDouble(offset + 16);
+                marketCaps[i] = mapped.getDouble(offset + 24);
+            }
+            return new PriceSeries(timestamps, closes, volumes, marketCaps);
+        }
+    }
+
+    public static boolean exists(Path path) {
+        return Files.isRegularFile(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private static void checkHeader(ByteBuffer header) throws IOException {
+        int magic = header.getInt(0);
+        int version = header.getInt(4);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not a price history file (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of history file " + path);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,289 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HedgedMarketDataProvider over stub providers with controlled latency, prices and errors:
+ * call order, hedging, failover, sanity checks and cross-checking of late answers.
+ */
+class HedgedMarketDataProviderTest {
+
+    private static final List<String> COINS = Arrays.asList("bitcoin", "ethereum");
+
+    private HedgedMarketDataProvider hedged;
+
+    @AfterEach
+    void shutdown() {
+        if (hedged != null) {
+            hedged.shutdown();
+        }
+    }
+
+    @Test
+    void fastPrimaryAnswersWithoutHedging() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 0, 100);
+        StubProvider secondary = new StubProvider("secondary", true, 0, 200);
+        hedged = hedgedOver(100, primary, secondary);
+
+        assertEquals(100, price(hedged.fetchSpotPrices(COINS)));
+        assertEquals(0, secondary.calls.get());
+        assertEquals(0L, hedged.getStats().get("hedgedCalls"));
+    }
+
+    @Test
+    void slowPrimaryIsHedgedToTheNextLiveProvider() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 5000, 100);
+        StubProvider secondary = new StubProvider("secondary", true, 0, 101);
+        hedged = hedgedOver(100, primary, secondary);
+
+        long start = System.nanoTime();
+        assertEquals(101, price(hedged.fetchSpotPrices(COINS)));
+        assertTrue(elapsedMs(start) < 2000, "hedge should not wait for the slow primary");
+        assertEquals(1L, hedged.getStats().get("hedgedCalls"));
+        assertEquals(1L, hedged.getStats().get("fallbackWins"));
+        // The losing call is cancelled rather than left to finish
+        primary.awaitDone();
+        assertTrue(primary.interrupted);
+    }
+
+    @Test
+    void failingPrimaryFailsOverWithoutWaitingForTheHedgeDelay() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 0, 100).failing();
+        StubProvider secondary = new StubProvider("secondary", true, 0, 101);
+        hedged = hedgedOver(3000, primary, secondary);
+
+        long start = System.nanoTime();
+        assertEquals(101, price(hedged.fetchSpotPrices(COINS)));
+        assertTrue(elapsedMs(start) < 1500, "failover should be immediate");
+        assertEquals(0L, hedged.getStats().get("hedgedCalls"));
+    }
+
+    @Test
+    void partialSpotAnswerIsRejected() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 0, 100).knowingOnly("bitcoin");
+        StubProvider secondary = new StubProvider("secondary", true, 0, 101);
+        hedged = hedgedOver(100, primary, secondary);
+
+        Map<String, MarketData> result = hedged.fetchSpotPrices(COINS);
+        assertEquals(101, price(result));
+        assertEquals(2, result.size());
+        assertEquals(1L, hedged.getStats().get("sanityRejections"));
+    }
+
+    @Test
+    void nonPositivePriceIsRejected() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 0, 0);
+        StubProvider secondary = new StubProvider("secondary", true, 0, 101);
+        hedged = hedgedOver(100, primary, secondary);
+
+        assertEquals(101, price(hedged.fetchSpotPrices(COINS)));
+        assertEquals(1L, hedged.getStats().get("sanityRejections"));
+    }
+
+    @Test
+    void slowPrimaryIsNotHedgedToAFixture() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 300, 100);
+        StubProvider fixture = new StubProvider("replay", false, 0, 1);
+        hedged = hedgedOver(50, primary, fixture);
+
+        assertEquals(100, price(hedged.fetchSpotPrices(COINS)));
+        assertEquals(0, fixture.calls.get());
+    }
+
+    @Test
+    void fasterFixtureDoesNotDisplaceThePrimary() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 20, 100).failing();
+        StubProvider fixture = new StubProvider("replay", false, 0, 1);
+        hedged = hedgedOver(50, fixture, primary);
+
+        // While the primary is down the fixture serves, and builds up fast latency samples
+        for (int i = 0; i < 15; i++) {
+            assertEquals(1, price(hedged.fetchSpotPrices(COINS)));
+        }
+        assertEquals(15, fixture.calls.get());
+
+        primary.recover();
+        for (int i = 0; i < 15; i++) {
+            assertEquals(100, price(hedged.fetchSpotPrices(COINS)));
+        }
+        assertEquals(15, fixture.calls.get());
+    }
+
+    @Test
+    void allProvidersFailingThrows() {
+        StubProvider primary = new StubProvider("primary", true, 0, 100).failing();
+        StubProvider secondary = new StubProvider("secondary", true, 0, 101).failing();
+        StubProvider fixture = new StubProvider("replay", false, 0, 1).failing();
+        hedged = hedgedOver(100, primary, secondary, fixture);
+
+        IOException error = assertThrows(IOException.class, () -> hedged.fetchSpotPrices(COINS));
+        assertEquals(2, error.getSuppressed().length);
+        assertEquals(1, fixture.calls.get());
+    }
+
+    @Test
+    void lateDisagreementCountsAgainstTheWinner() throws Exception {
+        StubProvider primary = new StubProvider("primary", true, 300, 100).uninterruptible();
+        StubProvider secondary = new StubProvider("secondary", true, 0, 200);
+        hedged = hedgedOver(50, primary, secondary);
+
+        assertEquals(200, price(hedged.fetchSpotPrices(COINS)));
+        primary.awaitDone();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while ((Long) hedged.getStats().get("disagreements") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, hedged.getStats().get("disagreements"));
+        assertEquals(0.5, providerRow("secondary").get("errorRate"));
+        assertEquals(0.0, providerRow("primary").get("errorRate"));
+    }
+
+    private static HedgedMarketDataProvider hedgedOver(long hedgeDelayMs, StubProvider... providers) {
+        MarketDataConfig config = new MarketDataConfig();
+        List<String> names = new ArrayList<>();
+        for (StubProvider provider : providers) {
+            names.add(provider.getName());
+        }
+        config.setHedgeProviders(names);
+        config.setHedgeMinDelayMs(hedgeDelayMs);
+        config.setHedgeDefaultDelayMs(hedgeDelayMs);
+        config.setHedgeMaxDelayMs(hedgeDelayMs);
+
+        HedgedMarketDataProvider hedged = new HedgedMarketDataProvider();
+        ReflectionTestUtils.setField(hedged, "marketDataConfig", config);
+        ReflectionTestUtils.setField(hedged, "marketDataProviders", Arrays.<MarketDataProvider>asList(providers));
+        return hedged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> providerRow(String name) {
+        for (Map<String, Object> row : (List<Map<String, Object>>) hedged.getStats().get("providers")) {
+            if (name.equals(row.get("name"))) {
+                return row;
+            }
+        }
+        throw new AssertionError("No stats for provider " + name);
+    }
+
+    private static double price(Map<String, MarketData> result) {
+        return result.get("bitcoin").getCurrentPrice();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static class StubProvider implements MarketDataProvider {
+        private final String name;
+        private final boolean live;
+        private final long latencyMs;
+        private final double price;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile boolean interruptible = true;
+        private volatile boolean interrupted;
+        private List<String> known;
+
+        StubProvider(String name, boolean live, long latencyMs, double price) {
+            this.name = name;
+            this.live = live;
+            this.latencyMs = latencyMs;
+            this.price = price;
+        }
+
+        StubProvider failing() {
+            failing = true;
+            return this;
+        }
+
+        StubProvider knowingOnly(String... coinGeckoIds) {
+            known = Arrays.asList(coinGeckoIds);
+            return this;
+        }
+
+        StubProvider uninterruptible() {
+            interruptible = false;
+            return this;
+        }
+
+        void recover() {
+            failing = false;
+        }
+
+        void awaitDone() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (done.get() < calls.get() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isLive() {
+            return live;
+        }
+
+        @Override
+        public Map<String, MarketData> fetchSpotPrices(List<String> coinGeckoIds) throws IOException, InterruptedException {
+            calls.incrementAndGet();
+            try {
+                simulateLatency();
+                if (failing) {
+                    throw new IOException(name + " is down");
+                }
+                Map<String, MarketData> result = new HashMap<>();
+                for (String coinGeckoId : coinGeckoIds) {
+                    if (known == null || known.contains(coinGeckoId)) {
+                        result.put(coinGeckoId, new MarketData(coinGeckoId, price));
+                    }
+                }
+                return result;
+            } finally {
+                done.incrementAndGet();
+            }
+        }
+
+        @Override
+        public PriceSeries fetchPriceHistory(String coinGeckoId, int days) throws IOException {
+            throw new IOException("History is not stubbed");
+        }
+
+        private void simulateLatency() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyMs);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    if (interruptible) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.quat.cryptoNotifier.service;
+
+import com.quat.cryptoNotifier.config.MarketDataConfig;
+import com.quat.cryptoNotifier.model.MarketData;
+import com.quat.cryptoNotifier.model.PriceSeries;
+import com.quat.cryptoNotifier.service.MarketDataCacheService.CachedMarketData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MarketDataStore against its on-disk format: records survive a reopen, a torn or corrupted
+ * tail is cut off on replay without losing earlier records, and compaction keeps only live
+ * keys within the segment size limit.
+ */
+class MarketDataStoreTest {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    @TempDir
+    Path storeDir;
+
+    private MarketDataStore store;
+
+    @AfterEach
+    void closeStore() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void putGetAndDeleteSurviveReopen() throws IOException {
+        store = openStore(1024 * 1024);
+        store.put("bitcoin", entry("BTC", 100_000, 30));
+        store.put("ethereum", entry("ETH", 3_000, 30));
+        store.put("bitcoin", entry("BTC", 101_000, 31));
+        store.delete("ethereum");
+        store.close();
+
+        store = openStore(1024 * 1024);
+        assertEquals(new HashSet<>(Arrays.asList("bitcoin")), store.keys());
+        assertNull(store.get("ethereum"));
+        CachedMarketData bitcoin = store.get("bitcoin");
+        assertNotNull(bitcoin);
+        assertEquals(101_000, bitcoin.getMarketData().getCurrentPrice());
+        assertEquals(31, bitcoin.getMarketData().getPriceSeries().size());
+        assertEquals(101_000, bitcoin.getMarketData().getPriceSeries().lastClose());
+    }
+
+    @Test
+    void staleFlagIsNotPersisted() throws IOException {
+        store = openStore(1024 * 1024);
+        CachedMarketData stale = entry("BTC", 100_000, 5);
+        stale.getMarketData().setStale(true);
+        store.put("bitcoin", stale);
+
+        assertFalse(store.get("bitcoin").getMarketData().isStale());
+    }
+
+    @Test
+    void tornLastRecordIsTruncatedOnReopen() throws IOException {
+        store = openStore(1024 * 1024);
+        store.put("bitcoin", entry("BTC", 100_000, 10));
+        long firstRecordEnd = Files.size(onlySegment());
+        store.put("ethereum", entry("ETH", 3_000, 10));
+        store.close();
+
+        // Crash halfway through writing the second record
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.setLength(firstRecordEnd + (file.length() - firstRecordEnd) / 2);
+        }
+
+        store = openStore(1024 * 1024);
+        assertEquals(firstRecordEnd, Files.size(onlySegment()));
+        assertEquals(100_000, store.get("bitcoin").getMarketData().getCurrentPrice());
+        assertNull(store.get("ethereum"));
+
+        // Appends continue cleanly after the truncation point
+        store.put("solana", entry("SOL", 150, 10));
+        store.close();
+        store = openStore(1024 * 1024);
+        assertEquals(new HashSet<>(Arrays.asList("bitcoin", "solana")), store.keys());
+    }
+
+    @Test
+    void corruptedRecordIsCutOffWithEverythingAfterIt() throws IOException {
+        store = openStore(1024 * 1024);
+        store.put("bitcoin", entry("BTC", 100_000, 10));
+        long corruptOffset = Files.size(onlySegment()) + 20;
+        store.put("ethereum", entry("ETH", 3_000, 10));
+        store.put("solana", entry("SOL", 150, 10));
+        store.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.seek(corruptOffset);
+            int original = file.read();
+            file.seek(corruptOffset);
+            file.write(original ^ 0xFF);
+        }
+
+        store = openStore(1024 * 1024);
+        assertEquals(new HashSet<>(Arrays.asList("bitcoin")), store.keys());
+        assertEquals(100_000, store.get("bitcoin").getMarketData().getCurrentPrice());
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveKeysWithinTheSegmentLimit() throws IOException {
+        long segmentMaxBytes = 4 * 1024;
+        store = openStore(segmentMaxBytes);
+        List<String> coins = Arrays.asList("bitcoin", "ethereum", "solana", "cardano", "polkadot", "chainlink");
+        for (int version = 0; version < 20; version++) {
+            for (String coin : coins) {
+                store.put(coin, entry(coin, 1_000 + version, 60));
+            }
+        }
+        store.delete("cardano");
+        store.delete("polkadot");
+        long recordBytes = (long) store.getStats().get("liveBytes") / 4;
+        assertTrue(segmentFiles().size() > 2);
+
+        store.compactIfNeeded();
+
+        assertEquals(4, store.getStats().get("entries"));
+        assertEquals(store.getStats().get("liveBytes"), store.getStats().get("totalBytes"));
+        // The live records alone exceed one segment, so the copy must roll over
+        assertTrue((long) store.getStats().get("liveBytes") > segmentMaxBytes);
+        assertTrue(segmentFiles().size() > 1);
+        for (Path segment : segmentFiles()) {
+            assertTrue(Files.size(segment) < segmentMaxBytes + recordBytes, "segment " + segment + " exceeds the limit");
+        }
+
+        store.close();
+        store = openStore(segmentMaxBytes);
+        assertEquals(new HashSet<>(Arrays.asList("bitcoin", "ethereum", "solana", "chainlink")), store.keys());
+        for (String coin : store.keys()) {
+            assertEquals(1_019, store.get(coin).getMarketData().getCurrentPrice());
+        }
+        assertNull(store.get("cardano"));
+    }
+
+    private MarketDataStore openStore(long segmentMaxBytes) throws IOException {
+        MarketDataConfig config = new MarketDataConfig();
+        config.setStoreDir(storeDir.toString());
+        config.setStoreSegmentMaxBytes(segmentMaxBytes);
+        MarketDataStore opened = new MarketDataStore();
+        ReflectionTestUtils.setField(opened, "marketDataConfig", config);
+        opened.open();
+        return opened;
+    }
+
+    private static CachedMarketData entry(String symbol, double price, int days) {
+        PriceSeries series = new PriceSeries(days);
+        for (int i = 0; i < days; i++) {
+            series.append(i * DAY_MILLIS, price - days + 1 + i);
+        }
+        MarketData marketData = new MarketData(symbol, price);
+        marketData.setPriceSeries(series);
+        return new CachedMarketData(marketData);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(storeDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segmentFiles();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+}
@@ -0,0 +1,211 @@
+package com.quat.cryptoNotifier.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CorrelationEngine against a from-scratch Pearson computation over the same window of
+ * returns, and its clustering on hand-built correlation matrices.
+ */
+class CorrelationEngineTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void appendMatchesPearsonAcrossRingWraps() {
+        int assets = 5;
+        int window = 30;
+        double[][] closes = correlatedWalks(assets, 200, 11);
+        CorrelationEngine engine = new CorrelationEngine(assets, window, pool);
+        double[] matrix = new double[assets * assets];
+        for (int day = 0; day < closes[0].length; day++) {
+            engine.append(day, column(closes, day));
+            if (day >= 2) {
+                assertMatchesPearson(engine, closes, day, engine.correlationMatrix(matrix));
+            }
+        }
+        assertEquals(window, engine.getReturnCount());
+    }
+
+    @Test
+    void replaceLastMatchesPearsonOfFinalCloses() {
+        int assets = 4;
+        int window = 20;
+        double[][] closes = correlatedWalks(assets, 150, 3);
+        Random random = new Random(8);
+        CorrelationEngine engine = new CorrelationEngine(assets, window, pool);
+        double[] matrix = new double[assets * assets];
+        for (int day = 0; day < closes[0].length; day++) {
+            // Provisional closes first, then the final ones
+            double[] provisional = column(closes, day);
+            for (int i = 0; i < assets; i++) {
+                provisional[i] *= 1 + random.nextGaussian() * 0.02;
+            }
+            engine.append(day, provisional);
+            engine.replaceLast(day, column(closes, day));
+            if (day >= 2) {
+                assertMatchesPearson(engine, closes, day, engine.correlationMatrix(matrix));
+            }
+        }
+    }
+
+    @Test
+    void parallelRowsMatchPearson() {
+        // Enough pairs that the row loops are split across the pool
+        int assets = 400;
+        int window = 10;
+        double[][] closes = correlatedWalks(assets, 25, 17);
+        CorrelationEngine engine = new CorrelationEngine(assets, window, pool);
+        for (int day = 0; day < closes[0].length; day++) {
+            engine.append(day, column(closes, day));
+        }
+        assertMatchesPearson(engine, closes, closes[0].length - 1, engine.correlationMatrix(new double[assets * assets]));
+    }
+
+    @Test
+    void assetThatDoesNotMoveHasNoCorrelation() {
+        CorrelationEngine engine = new CorrelationEngine(2, 10, pool);
+        Random random = new Random(1);
+        for (int day = 0; day < 15; day++) {
+            engine.append(day, new double[] {100 + random.nextDouble(), 1.0});
+        }
+        assertTrue(Double.isNaN(engine.correlation(0, 1)));
+        assertEquals(1.0, engine.correlation(0, 0));
+    }
+
+    @Test
+    void clustersGroupAssetsAboveTheThreshold() {
+        double[] matrix = matrix(6, new double[][] {
+            {0, 1, 0.90}, {0, 2, 0.85}, {1, 2, 0.80},
+            {3, 4, 0.70},
+            {0, 3, 0.10}, {0, 4, 0.05}, {1, 3, 0.15}, {1, 4, 0.10}, {2, 3, 0.20}, {2, 4, 0.00},
+            {0, 5, 0.30}, {1, 5, 0.20}, {2, 5, 0.25}, {3, 5, 0.10}, {4, 5, 0.35}
+        });
+
+        int[] labels = CorrelationEngine.clusters(matrix, 6, 0.6);
+
+        assertEquals(0, labels[0]);
+        assertEquals(0, labels[1]);
+        assertEquals(0, labels[2]);
+        assertEquals(1, labels[3]);
+        assertEquals(1, labels[4]);
+        assertEquals(-1, labels[5]);
+    }
+
+    @Test
+    void clustersDoNotChainThroughASharedNeighbour() {
+        // A and C both follow B, but not each other: average linkage keeps C out of {A, B}
+        double[] matrix = matrix(3, new double[][] {{0, 1, 0.95}, {1, 2, 0.90}, {0, 2, 0.10}});
+
+        int[] labels = CorrelationEngine.clusters(matrix, 3, 0.6);
+
+        assertEquals(0, labels[0]);
+        assertEquals(0, labels[1]);
+        assertEquals(-1, labels[2]);
+    }
+
+    @Test
+    void topPairsAreSortedAndSkipNaN() {
+        double[] matrix = matrix(4, new double[][] {
+            {0, 1, 0.2}, {0, 2, Double.NaN}, {0, 3, 0.9}, {1, 2, 0.5}, {1, 3, -0.4}, {2, 3, 0.7}
+        });
+        int[] firsts = new int[3];
+        int[] seconds = new int[3];
+        double[] values = new double[3];
+
+        assertEquals(3, CorrelationEngine.topPairs(matrix, 4, 3, firsts, seconds, values));
+        assertEquals(0, firsts[0]);
+        assertEquals(3, seconds[0]);
+        assertEquals(0.9, values[0]);
+        assertEquals(2, firsts[1]);
+        assertEquals(3, seconds[1]);
+        assertEquals(0.5, values[2]);
+    }
+
+    private static void assertMatchesPearson(CorrelationEngine engine, double[][] closes, int lastDay, double[] matrix) {
+        int assets = closes.length;
+        int n = Math.min(lastDay, engine.getWindow());
+        for (int i = 0; i < assets; i++) {
+            for (int j = i + 1; j < assets; j++) {
+                double expected = pearson(closes[i], closes[j], lastDay, n);
+                String at = "pair " + i + "/" + j + " on day " + lastDay;
+                assertEquals(expected, engine.correlation(i, j), TOLERANCE, at);
+                assertEquals(expected, matrix[i * assets + j], TOLERANCE, at);
+                assertEquals(expected, matrix[j * assets + i], TOLERANCE, at);
+            }
+        }
+    }
+
+    // Pearson correlation of the n log returns ending on lastDay
+    private static double pearson(double[] a, double[] b, int lastDay, int n) {
+        double meanA = 0;
+        double meanB = 0;
+        for (int t = lastDay - n + 1; t <= lastDay; t++) {
+            meanA += Math.log(a[t] / a[t - 1]) / n;
+            meanB += Math.log(b[t] / b[t - 1]) / n;
+        }
+        double covariance = 0;
+        double varianceA = 0;
+        double varianceB = 0;
+        for (int t = lastDay - n + 1; t <= lastDay; t++) {
+            double x = Math.log(a[t] / a[t - 1]) - meanA;
+            double y = Math.log(b[t] / b[t - 1]) - meanB;
+            covariance += x * y;
+            varianceA += x * x;
+            varianceB += y * y;
+        }
+        return covariance / Math.sqrt(varianceA * varianceB);
+    }
+
+    // Random walks sharing a common market factor, so pairs have a range of correlations
+    private static double[][] correlatedWalks(int assets, int days, long seed) {
+        Random random = new Random(seed);
+        double[][] closes = new double[assets][days];
+        double[] loadings = new double[assets];
+        for (int i = 0; i < assets; i++) {
+            loadings[i] = random.nextDouble();
+            closes[i][0] = 1 + random.nextDouble() * 1000;
+        }
+        for (int day = 1; day < days; day++) {
+            double market = random.nextGaussian() * 0.03;
+            for (int i = 0; i < assets; i++) {
+                double move = loadings[i] * market + (1 - loadings[i]) * random.nextGaussian() * 0.03;
+                closes[i][day] = closes[i][day - 1] * Math.exp(move);
+            }
+        }
+        return closes;
+    }
+
+    private static double[] column(double[][] closes, int day) {
+        double[] column = new double[closes.length];
+        for (int i = 0; i < closes.length; i++) {
+            column[i] = closes[i][day];
+        }
+        return column;
+    }
+
+    private static double[] matrix(int n, double[][] pairs) {
+        double[] matrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            matrix[i * n + i] = 1.0;
+        }
+        for (double[] pair : pairs) {
+            matrix[(int) pair[0] * n + (int) pair[1]] = pair[2];
+            matrix[(int) pair[1] * n + (int) pair[0]] = pair[2];
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,143 @@
+package com.quat.cryptoNotifier.util;
+
+import com.quat.cryptoNotifier.model.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IndicatorEngine against the batch functions in IndicatorUtils: streaming, replaced and
+ * synced values must match a full recomputation over the same closes.
+ */
+class IndicatorEngineTest {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void appendMatchesBatchAtEveryLength() {
+        PriceSeries series = randomWalk(1000, 42);
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int size = 1; size <= series.size(); size++) {
+            engine.append(series.timestampAt(size - 1), series.closeAt(size - 1));
+            assertMatchesBatch(engine, series.closesArray(), size);
+        }
+    }
+
+    @Test
+    void replaceLastMatchesBatchOfFinalCloses() {
+        PriceSeries series = randomWalk(1000, 7);
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int size = 1; size <= series.size(); size++) {
+            long timestamp = series.timestampAt(size - 1);
+            // A provisional close first, then the final one
+            engine.append(timestamp, series.closeAt(size - 1) * 1.05);
+            engine.replaceLast(timestamp, series.closeAt(size - 1));
+            assertMatchesBatch(engine, series.closesArray(), size);
+        }
+    }
+
+    @Test
+    void syncReplacesChangedLastPointAndAppendsNewOnes() {
+        PriceSeries history = randomWalk(650, 11);
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int i = 0; i < 600; i++) {
+            engine.append(history.timestampAt(i), history.closeAt(i));
+        }
+
+        // The engine's last day gets a corrected close, and 50 more days follow
+        PriceSeries corrected = new PriceSeries(650);
+        for (int i = 0; i < 650; i++) {
+            corrected.append(history.timestampAt(i), i == 599 ? history.closeAt(i) * 0.97 : history.closeAt(i));
+        }
+
+        assertTrue(engine.sync(corrected, DAY_MILLIS));
+        assertEquals(650, engine.getCount());
+        assertMatchesBatch(engine, corrected.closesArray(), corrected.size());
+    }
+
+    @Test
+    void syncRejectsSeriesThatDoesNotContinue() {
+        PriceSeries history = randomWalk(300, 3);
+        IndicatorEngine engine = IndicatorEngine.of(history);
+        Double rsi = engine.getRsi();
+
+        // Replaced history that starts after the engine's last day
+        PriceSeries later = new PriceSeries(10);
+        for (int i = 1; i <= 10; i++) {
+            later.append(history.lastTimestamp() + i * DAY_MILLIS, 100 + i);
+        }
+
+        assertFalse(engine.sync(later, DAY_MILLIS));
+        assertEquals(300, engine.getCount());
+        assertEquals(rsi, engine.getRsi());
+        assertFalse(new IndicatorEngine().sync(history, DAY_MILLIS));
+    }
+
+    @Test
+    void movingAveragesStayExactAcrossManyRingWraps() {
+        // Large prices with small moves make running sums drift without the per-wrap re-sum.
+        // Not a multiple of the window, so the sums checked are mid-wrap rather than freshly re-summed
+        Random random = new Random(5);
+        int size = 100_123;
+        double[] closes = new double[size];
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int i = 0; i < size; i++) {
+            closes[i] = 1_000_000 + random.nextGaussian() * 0.01;
+            engine.append(i * DAY_MILLIS, closes[i]);
+        }
+
+        assertEquals(IndicatorUtils.calculateSMA(closes, size, 20).doubleValue(), engine.getSma20().doubleValue(), 1e-9);
+        assertEquals(IndicatorUtils.calculateSMA(closes, size, 50).doubleValue(), engine.getSma50().doubleValue(), 1e-9);
+        assertEquals(IndicatorUtils.calculateSMA(closes, size, 200).doubleValue(), engine.getSma200().doubleValue(), 1e-9);
+    }
+
+    private static void assertMatchesBatch(IndicatorEngine engine, double[] closes, int size) {
+        String at = " at length " + size;
+        assertClose(IndicatorUtils.calculateSMA(closes, size, 20), engine.getSma20(), "SMA20" + at);
+        assertClose(IndicatorUtils.calculateSMA(closes, size, 50), engine.getSma50(), "SMA50" + at);
+        assertClose(IndicatorUtils.calculateSMA(closes, size, 200), engine.getSma200(), "SMA200" + at);
+        assertClose(IndicatorUtils.calculateRSI(closes, size, IndicatorEngine.RSI_PERIOD), engine.getRsi(), "RSI" + at);
+
+        Double emaFast = IndicatorUtils.calculateEMA(closes, size, IndicatorEngine.MACD_FAST);
+        Double emaSlow = IndicatorUtils.calculateEMA(closes, size, IndicatorEngine.MACD_SLOW);
+        assertClose(emaSlow != null ? emaFast - emaSlow : null, engine.getMacd(), "MACD line from EMAs" + at);
+
+        IndicatorUtils.MACDResult macd = IndicatorUtils.calculateMACD(closes, size, IndicatorEngine.MACD_FAST,
+            IndicatorEngine.MACD_SLOW, IndicatorEngine.MACD_SIGNAL);
+        if (macd == null) {
+            assertNull(engine.getMacdSignal(), "MACD signal" + at);
+            assertNull(engine.getMacdHistogram(), "MACD histogram" + at);
+        } else {
+            assertClose(macd.getMacd(), engine.getMacd(), "MACD" + at);
+            assertClose(macd.getSignal(), engine.getMacdSignal(), "MACD signal" + at);
+            assertClose(macd.getHistogram(), engine.getMacdHistogram(), "MACD histogram" + at);
+        }
+    }
+
+    private static void assertClose(Double expected, Double actual, String message) {
+        if (expected == null) {
+            assertNull(actual, message);
+            return;
+        }
+        assertNotNull(actual, message);
+        assertEquals(expected.doubleValue(), actual.doubleValue(), TOLERANCE * Math.max(1, Math.abs(expected)), message);
+    }
+
+    private static PriceSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        PriceSeries series = new PriceSeries(size);
+        double close = 100;
+        for (int i = 0; i < size; i++) {
+            close *= 1 + random.nextGaussian() * 0.03;
+            series.append(i * DAY_MILLIS, close);
+        }
+        return series;
+    }
+}